@@ -0,0 +1,41 @@
+package com.example.library.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+// Caching wraps the transaction interceptor, so a hit opens no transaction.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String USERS = "users";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new VersionedCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        manager.setAllowNullValues(false);
+        if (StringUtils.hasText(properties.getCaffeine().getSpec())) {
+            manager.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            manager.setCacheNames(properties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
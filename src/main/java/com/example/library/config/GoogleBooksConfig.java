@@ -0,0 +1,9 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GoogleBooksProperties.class)
+public class GoogleBooksConfig {
+}
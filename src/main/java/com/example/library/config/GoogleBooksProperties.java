@@ -0,0 +1,42 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties("google.books")
+public record GoogleBooksProperties(
+        @DefaultValue("https://www.googleapis.com/books/v1/volumes") String url,
+        @DefaultValue Cache cache,
+        @DefaultValue Client client,
+        @DefaultValue Resilience resilience) {
+
+    public record Cache(
+            @DefaultValue("1000") long maximumSize,
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("24h") Duration staleTtl) {
+    }
+
+    public record Client(
+            @DefaultValue("2s") Duration connectTimeout,
+            @DefaultValue("5s") Duration responseTimeout,
+            @DefaultValue("50") int maxConnections,
+            @DefaultValue("100") int pendingAcquireMaxCount,
+            @DefaultValue("2s") Duration pendingAcquireTimeout,
+            @DefaultValue("1MB") DataSize maxResponseSize,
+            @DefaultValue("20") int maxResults) {
+    }
+
+    public record Resilience(
+            @DefaultValue("20") int maxConcurrentCalls,
+            @DefaultValue("50") float failureRateThreshold,
+            @DefaultValue("20") int slidingWindowSize,
+            @DefaultValue("10") int minimumNumberOfCalls,
+            @DefaultValue("30s") Duration waitDurationInOpenState,
+            @DefaultValue("2") int retries,
+            @DefaultValue("100ms") Duration retryBackoff,
+            @DefaultValue("1s") Duration retryMaxBackoff) {
+    }
+}
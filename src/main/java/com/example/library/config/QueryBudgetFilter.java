@@ -0,0 +1,43 @@
+package com.example.library.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Asynchronous requests finish on other threads, so they are not judged.
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final QueryBudgetProperties properties;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryInspector.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryInspector.stop();
+            request.setAttribute(QueryStats.ATTRIBUTE, stats);
+            if (!request.isAsyncStarted() && isOverBudget(stats)) {
+                log.warn("{} {} over query budget: {}", request.getMethod(), request.getRequestURI(), stats);
+            }
+        }
+    }
+
+    private boolean isOverBudget(QueryStats stats) {
+        return stats.statements() > properties.maxStatements()
+                || stats.elapsed().compareTo(properties.maxTime()) > 0
+                || stats.mostRepeated().map(entry -> entry.getValue() > properties.maxRepeats()).orElse(false);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("library.query-budget")
+public record QueryBudgetProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int maxStatements,
+        @DefaultValue("500ms") Duration maxTime,
+        @DefaultValue("5") int maxRepeats) {
+}
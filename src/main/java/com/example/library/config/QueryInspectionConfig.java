@@ -0,0 +1,34 @@
+package com.example.library.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(value = "library.query-budget.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class QueryInspectionConfig {
+
+    @Bean
+    static BeanPostProcessor queryInspectionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).listener(new QueryInspector()).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryBudgetFilter queryBudgetFilter(QueryBudgetProperties properties) {
+        return new QueryBudgetFilter(properties);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.library.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// A JDBC batch counts as one statement; repeats are counted per SQL text.
+public class QueryStats {
+    public static final String ATTRIBUTE = QueryStats.class.getName();
+
+    private final Map<String, Integer> repeats = new HashMap<>();
+    private int statements;
+    private long elapsedMillis;
+
+    void record(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statements++;
+        elapsedMillis += execInfo.getElapsedTime();
+        for (QueryInfo queryInfo : queryInfoList) {
+            repeats.merge(queryInfo.getQuery(), 1, Integer::sum);
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Duration elapsed() {
+        return Duration.ofMillis(elapsedMillis);
+    }
+
+    public int count(String sqlFragment) {
+        return repeats.entrySet().stream()
+                .filter(entry -> entry.getKey().contains(sqlFragment))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    public Optional<Map.Entry<String, Integer>> mostRepeated() {
+        return repeats.entrySet().stream().max(Comparator.comparingInt(Map.Entry::getValue));
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements in " + elapsedMillis + " ms" + mostRepeated()
+                .filter(entry -> entry.getValue() > 1)
+                .map(entry -> ", repeated " + entry.getValue() + " times: " + entry.getKey())
+                .orElse("");
+    }
+}
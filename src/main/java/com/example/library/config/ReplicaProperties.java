@@ -0,0 +1,23 @@
+package com.example.library.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("library.datasource.replica")
+public record ReplicaProperties(
+        String url,
+        String username,
+        String password,
+        String driverClassName,
+        @DefaultValue("10s") Duration maxLag,
+        @DefaultValue("5s") Duration lagCheckInterval,
+        @DefaultValue(LAG_QUERY) String lagQuery) {
+
+    // Needs pg_read_all_stats (or pg_monitor) to read the WAL receiver status.
+    static final String LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+}
@@ -0,0 +1,51 @@
+package com.example.library.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Until the first lag check succeeds, reads stay on the primary.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private volatile boolean replicaFresh;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaProperties properties) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = properties.lagQuery();
+        this.maxLagSeconds = properties.maxLag().toMillis() / 1000.0;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && isReplicaFresh()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    public boolean isReplicaFresh() {
+        return replicaFresh;
+    }
+
+    public void checkLag() {
+        replicaFresh = lagWithinLimit();
+    }
+
+    private boolean lagWithinLimit() {
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            return lag != null && lag <= maxLagSeconds;
+        } catch (Exception exception) {
+            return false;
+        }
+    }
+}
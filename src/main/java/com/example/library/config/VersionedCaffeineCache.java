@@ -0,0 +1,79 @@
+package com.example.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Drops a put whose key was evicted since the lookup that missed it.
+public class VersionedCaffeineCache extends CaffeineCache {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_PENDING_MISSES = 16;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final ThreadLocal<Map<Object, Long>> misses = ThreadLocal.withInitial(() -> new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Long> eldest) {
+            return size() > MAX_PENDING_MISSES;
+        }
+    });
+
+    public VersionedCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            misses.get().putIfAbsent(key, generations.get(stripe(key)));
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Long generation = misses.get().remove(key);
+        if (generation != null && generation != generations.get(stripe(key))) {
+            return;
+        }
+        super.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        generations.incrementAndGet(stripe(key));
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generations.incrementAndGet(stripe(key));
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        bumpAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        bumpAll();
+        return super.invalidate();
+    }
+
+    private void bumpAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
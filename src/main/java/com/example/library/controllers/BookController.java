@@ -1,16 +1,23 @@
 package com.example.library.controllers;
 
 import com.example.library.domain.Book;
+import com.example.library.services.BookImportService;
+import com.example.library.services.BookSearchService;
 import com.example.library.services.BookService;
-import com.example.library.services.google.BooksAPIService;
+import com.example.library.services.EnrichmentService;
+import com.example.library.services.enrichment.EnrichmentProgress;
+import com.example.library.services.enrichment.EnrichmentRequest;
+import com.example.library.services.export.StreamExporter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Mono;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -22,16 +29,53 @@ public class BookController {
     @Autowired
     private BookService service;
 
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private BookSearchService searchService;
+
+    @Autowired
+    private EnrichmentService enrichmentService;
+
     @GetMapping("/")
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(service.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(@RequestParam(defaultValue = "0") Long after,
+                                                  @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.size(limit);
+        return Paging.page(service.getBooks(after, size), size, Book::getId);
+    }
+
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = service::exportBooks;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchBooks(@RequestParam String q,
+                                         @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Query is required");
+        }
+        return ResponseEntity.ok(searchService.searchBooks(q, Paging.size(limit)));
+    }
+
+    @PostMapping("/enrichment")
+    public ResponseEntity<?> startEnrichment(@RequestBody EnrichmentRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(enrichmentService.startEnrichment(request));
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
     }
 
-    @GetMapping("/api/")
-    public Mono<ResponseEntity<String>> getBooksFromAPI(@RequestParam String title) {
-        return BooksAPIService.getBooks(title)
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+    @GetMapping("/enrichment/{job_id}")
+    public ResponseEntity<?> getEnrichment(@PathVariable Long job_id) {
+        Optional<EnrichmentProgress> progress = enrichmentService.getProgress(job_id);
+        if (progress.isPresent()) {
+            return ResponseEntity.ok(progress.get());
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Enrichment job not found");
     }
 
     @GetMapping("/{book_id}")
@@ -58,6 +102,28 @@ public class BookController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = StreamExporter.TEXT_CSV_VALUE)
+    public ResponseEntity<Object> importBooksCsv(InputStream body) {
+        try {
+            return ResponseEntity.ok(importService.importCsv(body));
+        }catch (IllegalArgumentException exception) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(exception.getMessage());
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> importBooksNdjson(InputStream body) {
+        try {
+            return ResponseEntity.ok(importService.importNdjson(body));
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
+    }
+
     @DeleteMapping("/{book_id}")
     public ResponseEntity<?> deleteBook(@PathVariable Long book_id) {
         try {
@@ -79,7 +145,7 @@ public class BookController {
             if (updatedBook.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Book not found");
             }
-            return ResponseEntity.ok(updatedBook);
+            return ResponseEntity.ok(updatedBook.get());
         } catch (Exception exception) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(exception.getMessage());
@@ -0,0 +1,49 @@
+package com.example.library.controllers;
+
+import com.example.library.services.google.BooksAPIService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.Exceptions;
+
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/books/api")
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class GoogleBooksBlockingController {
+
+    @Autowired
+    private BooksAPIService booksAPIService;
+
+    @GetMapping("/")
+    public ResponseEntity<?> getBooksFromAPI(@RequestParam String title) {
+        return fromAPI(() -> booksAPIService.findVolumes(title));
+    }
+
+    @GetMapping("/candidates")
+    public ResponseEntity<?> getBookCandidatesFromAPI(@RequestParam String title) {
+        return fromAPI(() -> booksAPIService.findBookCandidates(title));
+    }
+
+    private <T> ResponseEntity<?> fromAPI(Supplier<T> call) {
+        try {
+            return ResponseEntity.ok(call.get());
+        }catch (Exception exception) {
+            Throwable error = Exceptions.unwrap(exception);
+            if (BooksAPIService.isUnavailable(error)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Google Books is unavailable");
+            }
+            if (BooksAPIService.isBadGateway(error)) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Google Books failed: " + error.getMessage());
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.library.controllers;
+
+import com.example.library.services.google.BooksAPIService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/books/api")
+@ConditionalOnThreading(Threading.PLATFORM)
+public class GoogleBooksController {
+
+    @Autowired
+    private BooksAPIService booksAPIService;
+
+    @GetMapping("/")
+    public Mono<ResponseEntity<?>> getBooksFromAPI(@RequestParam String title) {
+        return fromAPI(booksAPIService.getVolumes(title));
+    }
+
+    @GetMapping("/candidates")
+    public Mono<ResponseEntity<?>> getBookCandidatesFromAPI(@RequestParam String title) {
+        return fromAPI(booksAPIService.getBookCandidates(title));
+    }
+
+    private <T> Mono<ResponseEntity<?>> fromAPI(Mono<T> result) {
+        return result.<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(BooksAPIService::isUnavailable, exception -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Google Books is unavailable")))
+                .onErrorResume(BooksAPIService::isBadGateway, exception -> Mono.just(
+                        ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Google Books failed: " + exception.getMessage())));
+    }
+}
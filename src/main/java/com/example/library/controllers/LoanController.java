@@ -1,15 +1,24 @@
 package com.example.library.controllers;
 
 import com.example.library.domain.Book;
+import com.example.library.domain.BulkCheckout;
+import com.example.library.domain.BulkLoanResult;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanCounterScope;
+import com.example.library.domain.LoanSummary;
 import com.example.library.services.BookService;
+import com.example.library.services.CheckoutResult;
 import com.example.library.services.LoanService;
+import com.example.library.services.export.StreamExporter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -20,26 +29,110 @@ public class LoanController {
     private LoanService service;
 
     @GetMapping("/")
-    public ResponseEntity<List<Loan>> getAllLoans() {
-        return ResponseEntity.ok(service.getAllLoans());
+    public ResponseEntity<List<LoanSummary>> getAllLoans(@RequestParam(defaultValue = "0") Long after,
+                                                         @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.size(limit);
+        return Paging.page(service.getLoans(after, size), size, LoanSummary::id);
+    }
+
+    @GetMapping(value = "/", params = "view=full")
+    public ResponseEntity<List<Loan>> getAllFullLoans(@RequestParam(defaultValue = "0") Long after,
+                                                      @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.size(limit);
+        return Paging.page(service.getFullLoans(after, size), size, Loan::getId);
+    }
+
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLoans() {
+        StreamingResponseBody body = service::exportLoans;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/", produces = StreamExporter.TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportLoansCsv() {
+        StreamingResponseBody body = service::exportLoansCsv;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(StreamExporter.TEXT_CSV_VALUE)).body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getStats(@RequestParam(required = false) Long user_id,
+                                           @RequestParam(required = false) Long book_id) {
+        try {
+            if (user_id != null && book_id != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Use either user_id or book_id");
+            }
+            if (user_id != null) {
+                return ResponseEntity.ok(service.getStats(LoanCounterScope.USER, user_id));
+            }
+            if (book_id != null) {
+                return ResponseEntity.ok(service.getStats(LoanCounterScope.BOOK, book_id));
+            }
+            return ResponseEntity.ok(service.getStats(LoanCounterScope.GLOBAL, null));
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
     }
 
     @PostMapping("/")
     public ResponseEntity<Object> createLoan(@RequestBody Loan loan) {
         try {
-            if (!service.checkUser(loan)) {
+            CheckoutResult result = service.createLoan(loan);
+            return switch (result.status()) {
+                case CREATED -> ResponseEntity.status(HttpStatus.CREATED).body(result.loan());
+                case USER_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+                case BOOK_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Book not found");
+                case BOOK_NOT_AVAILABLE -> ResponseEntity.status(HttpStatus.CONFLICT).body("Book is not available");
+            };
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> createLoans(@RequestBody(required = false) BulkCheckout checkout) {
+        try {
+            if (checkout == null || checkout.userId() == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("userId and bookIds are required");
+            }
+            String invalid = checkIds(checkout.bookIds(), "bookIds");
+            if (invalid != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalid);
+            }
+            Optional<List<BulkLoanResult>> results = service.createLoans(checkout);
+            if (results.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
+            return ResponseEntity.ok(results.get());
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
+    }
 
-            if (!service.checkBook(loan)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Book not found");
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> finishLoans(@RequestBody(required = false) List<Long> loanIds) {
+        try {
+            String invalid = checkIds(loanIds, "loanIds");
+            if (invalid != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalid);
             }
-            Optional<Loan> result = service.createLoan(loan);
-            if (result.isPresent()) {
-                Loan newLoan = result.get();
-                return ResponseEntity.status(HttpStatus.CREATED).body(newLoan);
+            return ResponseEntity.ok(service.finishLoans(loanIds));
+        }catch (Exception exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(exception.getMessage());
+        }
+    }
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Object> deleteLoans(@RequestBody(required = false) List<Long> loanIds) {
+        try {
+            String invalid = checkIds(loanIds, "loanIds");
+            if (invalid != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalid);
             }
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Book is not available");
+            return ResponseEntity.ok(service.deleteLoans(loanIds));
         }catch (Exception exception) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(exception.getMessage());
@@ -49,11 +142,11 @@ public class LoanController {
     @PatchMapping("/{loan_id}")
     public ResponseEntity<Object> finishLoan(@PathVariable Long loan_id) {
         try {
-            Optional<Loan> loan = service.finishLoan(loan_id);
-            if (loan.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Loan not found");
-            }
-            return ResponseEntity.ok("Loan finished successfully");
+            return switch (service.finishLoan(loan_id)) {
+                case UPDATED -> ResponseEntity.ok("Loan finished successfully");
+                case LOAN_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Loan not found");
+                case NOT_ACTIVE -> ResponseEntity.status(HttpStatus.CONFLICT).body("Loan is not active");
+            };
         }catch (Exception exception) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(exception.getMessage());
@@ -63,14 +156,28 @@ public class LoanController {
     @DeleteMapping("/{loan_id}")
     public ResponseEntity<?> deleteLoan(@PathVariable Long loan_id) {
         try {
-            boolean deletedLoan = service.deleteLoan(loan_id);
-            if (!deletedLoan) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Loan not found");
-            }
-            return ResponseEntity.ok("Loan cancelled successfully");
+            return switch (service.deleteLoan(loan_id)) {
+                case UPDATED -> ResponseEntity.ok("Loan cancelled successfully");
+                case LOAN_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Loan not found");
+                case NOT_ACTIVE -> ResponseEntity.status(HttpStatus.CONFLICT).body("Loan is not active or pending");
+            };
         }catch (Exception exception) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(exception.getMessage());
         }
     }
+
+    // A bulk call runs in one transaction, so it is capped like a page rather than locking any number of rows.
+    private static String checkIds(List<Long> ids, String name) {
+        if (ids == null || ids.isEmpty()) {
+            return name + " are required";
+        }
+        if (ids.size() > Paging.MAX_LIMIT) {
+            return "At most " + Paging.MAX_LIMIT + " " + name + " per request";
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            return name + " can not contain null";
+        }
+        return null;
+    }
 }
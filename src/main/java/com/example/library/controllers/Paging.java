@@ -0,0 +1,28 @@
+package com.example.library.controllers;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class Paging {
+
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+    static final String DEFAULT_LIMIT = "100";
+    static final int MAX_LIMIT = 1000;
+
+    private Paging() {
+    }
+
+    static int size(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, int size, Function<T, Long> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == size) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(id.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+}
@@ -3,10 +3,14 @@ package com.example.library.controllers;
 import com.example.library.domain.User;
 import com.example.library.services.RecommendationService;
 import com.example.library.services.UserService;
+import com.example.library.services.export.StreamExporter;
+import com.example.library.services.recommendation.RecommendationStrategy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,8 +26,22 @@ public class UserController {
     private RecommendationService recommendationService;
 
     @GetMapping("/")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(service.getAllUsers());
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(defaultValue = "0") Long after,
+                                                  @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.size(limit);
+        return Paging.page(service.getUsers(after, size), size, User::getId);
+    }
+
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = service::exportUsers;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/", produces = StreamExporter.TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsersCsv() {
+        StreamingResponseBody body = service::exportUsersCsv;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(StreamExporter.TEXT_CSV_VALUE)).body(body);
     }
 
     @GetMapping("/{user_id}")
@@ -31,7 +49,7 @@ public class UserController {
         try {
             Optional<User> user = service.getUserById(user_id);
             if (user.isPresent()) {
-                return ResponseEntity.ok(user);
+                return ResponseEntity.ok(user.get());
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         } catch (Exception exception) {
@@ -41,11 +59,14 @@ public class UserController {
     }
 
     @GetMapping("/recommend/{user_id}")
-    public ResponseEntity<?> recommendBook(@PathVariable Long user_id) {
+    public ResponseEntity<?> recommendBook(@PathVariable Long user_id,
+                                           @RequestParam(defaultValue = "CATEGORY") RecommendationStrategy strategy,
+                                           @RequestParam(defaultValue = "20") int limit) {
         try {
             Optional<User> user = service.getUserById(user_id);
             if (user.isPresent()) {
-                return ResponseEntity.status(HttpStatus.OK).body(recommendationService.recommendBooks(user.get()));
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(recommendationService.recommendBooks(user.get(), strategy, Paging.size(limit)));
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         } catch (Exception exception) {
@@ -90,7 +111,7 @@ public class UserController {
             if (updatedUser.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
             }
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(updatedUser.get());
         } catch (Exception exception) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(exception.getMessage());
@@ -0,0 +1,43 @@
+package com.example.library.domain;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "loans_archive", indexes = {
+        @Index(name = "loans_archive_user_id_idx", columnList = "user_id"),
+        @Index(name = "loans_archive_book_id_idx", columnList = "book_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ArchivedLoan {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LoanStatus status;
+
+    @Column(name = "loan_date", nullable = false)
+    private LocalDate loanDate;
+
+    @Column(name = "return_date")
+    private LocalDate returnDate;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -13,7 +13,10 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
-@Table (name = "books")
+@Table (name = "books", indexes = {
+        @Index(name = "books_category_idx", columnList = "category"),
+        @Index(name = "books_isbn_idx", columnList = "isbn")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +24,8 @@ import java.time.LocalDate;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Title is required!")
@@ -0,0 +1,4 @@
+package com.example.library.domain;
+
+public record BookCategory(Long id, String category) {
+}
@@ -0,0 +1,7 @@
+package com.example.library.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkLoanResult(Long loanId, Long bookId, String status) {
+}
@@ -13,18 +13,23 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "loans_user_id_idx", columnList = "user_id"),
+        @Index(name = "loans_book_id_idx", columnList = "book_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
-@EqualsAndHashCode
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Loan {
 
+    // Equality by id alone: the lazy user and book proxies must not be initialized.
+    @EqualsAndHashCode.Include
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loans_seq")
+    @SequenceGenerator(name = "loans_seq", sequenceName = "loans_seq", allocationSize = 50)
     private Long id;
 
-    @Enumerated(EnumType.STRING)
     private LoanStatus status;
 
     @NotNull(message = "Loan date  is required!")
@@ -38,11 +43,11 @@ public class Loan {
     @Column(name = "return_date")
     private LocalDate returnDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id")
     private Book book;
 }
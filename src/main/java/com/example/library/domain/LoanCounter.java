@@ -0,0 +1,22 @@
+package com.example.library.domain;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "loan_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class LoanCounter {
+
+    @EmbeddedId
+    private LoanCounterId id;
+
+    @Column(nullable = false)
+    private long total;
+}
@@ -0,0 +1,27 @@
+package com.example.library.domain;
+
+public enum LoanCounterScope {
+    GLOBAL(1),
+    USER(2),
+    BOOK(3),
+    ;
+
+    private final short code;
+
+    LoanCounterScope(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static LoanCounterScope fromCode(short code) {
+        for (LoanCounterScope scope : values()) {
+            if (scope.code == code) {
+                return scope;
+            }
+        }
+        throw new IllegalArgumentException("Unknown loan counter scope code: " + code);
+    }
+}
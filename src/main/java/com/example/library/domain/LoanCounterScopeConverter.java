@@ -0,0 +1,18 @@
+package com.example.library.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class LoanCounterScopeConverter implements AttributeConverter<LoanCounterScope, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(LoanCounterScope scope) {
+        return scope == null ? null : scope.getCode();
+    }
+
+    @Override
+    public LoanCounterScope convertToEntityAttribute(Short code) {
+        return code == null ? null : LoanCounterScope.fromCode(code);
+    }
+}
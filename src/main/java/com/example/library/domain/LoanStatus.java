@@ -1,8 +1,28 @@
 package com.example.library.domain;
 
 public enum LoanStatus {
-    ACTIVE,
-    PENDING,
-    CANCELLED,
-    COMPLETED,
+    ACTIVE(1),
+    PENDING(2),
+    CANCELLED(3),
+    COMPLETED(4),
+    ;
+
+    private final short code;
+
+    LoanStatus(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static LoanStatus fromCode(short code) {
+        for (LoanStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown loan status code: " + code);
+    }
 }
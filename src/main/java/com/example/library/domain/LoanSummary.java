@@ -0,0 +1,16 @@
+package com.example.library.domain;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public record LoanSummary(
+        Long id,
+        LoanStatus status,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+        LocalDate loanDate,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+        LocalDate returnDate,
+        Long userId,
+        Long bookId) {
+}
@@ -0,0 +1,4 @@
+package com.example.library.domain;
+
+public record LoanTransition(Long userId, Long bookId, LoanStatus from, LoanStatus to) {
+}
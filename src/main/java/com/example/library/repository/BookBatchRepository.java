@@ -0,0 +1,13 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Book;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookBatchRepository {
+
+    void insertAll(List<Book> books);
+
+    void lockIsbns(Collection<String> isbns);
+}
@@ -0,0 +1,63 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+public class BookBatchRepositoryImpl implements BookBatchRepository {
+
+    private static final String INSERT_BOOK =
+            "INSERT INTO books (id, title, author, isbn, category, publish_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Taken in key order, so writers with overlapping ISBNs cannot deadlock.
+    private static final String LOCK_ISBNS = """
+            SELECT pg_advisory_xact_lock(1, isbn_key)
+            FROM (SELECT DISTINCT isbn_key FROM unnest(?) AS keys(isbn_key) ORDER BY isbn_key) sorted_keys""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceAllocator ids;
+
+    @Autowired
+    public BookBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = new SequenceAllocator(jdbcTemplate, "books_seq");
+    }
+
+    @Override
+    public void insertAll(List<Book> books) {
+        for (Book book : books) {
+            book.setId(ids.next());
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOK, books, books.size(), (statement, book) -> {
+            statement.setLong(1, book.getId());
+            statement.setString(2, book.getTitle());
+            statement.setString(3, book.getAuthor());
+            statement.setString(4, book.getIsbn());
+            statement.setString(5, book.getCategory());
+            statement.setObject(6, book.getPublishDate(), Types.DATE);
+        });
+    }
+
+    @Override
+    public void lockIsbns(Collection<String> isbns) {
+        if (isbns.isEmpty()) {
+            return;
+        }
+        Object[] keys = isbns.stream().map(String::hashCode).toArray();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Array array = connection.createArrayOf("INTEGER", keys);
+            try {
+                jdbcTemplate.queryForList(LOCK_ISBNS, array);
+            } finally {
+                array.free();
+            }
+            return null;
+        });
+    }
+}
@@ -2,10 +2,37 @@ package com.example.library.repository;
 
 
 import com.example.library.domain.Book;
+import com.example.library.domain.BookCategory;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface BookRepository extends JpaRepository<Book, Long>, BookBatchRepository {
     List<Book> findByCategoryIn(List<String> categories);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT book FROM Book book ORDER BY book.id")
+    Stream<Book> streamAll();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.library.domain.BookCategory(book.id, book.category) FROM Book book")
+    Stream<BookCategory> streamCategories();
+
+    @Query("SELECT book.id FROM Book book WHERE book.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT book.isbn FROM Book book WHERE book.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
 }
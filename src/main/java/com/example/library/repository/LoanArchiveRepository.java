@@ -0,0 +1,23 @@
+package com.example.library.repository;
+
+import com.example.library.domain.ArchivedLoan;
+import com.example.library.domain.LoanSummary;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface LoanArchiveRepository extends JpaRepository<ArchivedLoan, Long>, LoanArchivingRepository {
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.library.domain.LoanSummary(loan.id, loan.status, loan.loanDate, loan.returnDate, " +
+            "loan.userId, loan.bookId) FROM ArchivedLoan loan ORDER BY loan.id")
+    Stream<LoanSummary> streamSummaries();
+
+}
@@ -0,0 +1,8 @@
+package com.example.library.repository;
+
+import java.time.LocalDate;
+
+public interface LoanArchivingRepository {
+
+    int archiveBatch(LocalDate before, int limit);
+}
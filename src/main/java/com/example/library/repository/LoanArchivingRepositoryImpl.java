@@ -0,0 +1,52 @@
+package com.example.library.repository;
+
+import com.example.library.domain.LoanStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LoanArchivingRepositoryImpl implements LoanArchivingRepository {
+
+    // Retention counts from the return when there is one, and from the checkout otherwise.
+    private static final String SELECT_FINISHED = """
+            SELECT id FROM loans
+            WHERE status IN (%d, %d) AND COALESCE(return_date, loan_date) < ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""".formatted(LoanStatus.COMPLETED.getCode(), LoanStatus.CANCELLED.getCode());
+
+    private static final String COPY_LOANS = """
+            INSERT INTO loans_archive (id, status, loan_date, return_date, user_id, book_id, archived_at)
+            SELECT id, status, loan_date, return_date, user_id, book_id, ?
+            FROM loans
+            WHERE id = ANY (?)""";
+
+    private static final String DELETE_LOANS = "DELETE FROM loans WHERE id = ANY (?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int archiveBatch(LocalDate before, int limit) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_FINISHED, Long.class, before, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            Array array = connection.createArrayOf("BIGINT", ids.toArray());
+            try {
+                jdbcTemplate.update(COPY_LOANS, archivedAt, array);
+                return jdbcTemplate.update(DELETE_LOANS, array);
+            } finally {
+                array.free();
+            }
+        });
+    }
+}
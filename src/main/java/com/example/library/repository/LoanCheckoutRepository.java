@@ -0,0 +1,21 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanSummary;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface LoanCheckoutRepository {
+
+    Optional<Long> insertIfAvailable(Loan loan);
+
+    List<Optional<Long>> insertAllIfAvailable(List<Loan> loans);
+
+    List<LoanSummary> lockAll(List<Long> ids);
+
+    int[] finishAll(List<Long> ids, LocalDate date);
+
+    int[] cancelAll(List<Long> ids);
+}
@@ -0,0 +1,139 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.LoanSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.sql.Array;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class LoanCheckoutRepositoryImpl implements LoanCheckoutRepository {
+
+    // Status codes are inlined so the planner can match the partial index on active loans.
+    private static final String INSERT_LOAN = """
+            INSERT INTO loans (id, status, loan_date, return_date, user_id, book_id)
+            SELECT ?, ?, ?, ?, u.id, b.id
+            FROM users u, books b
+            WHERE u.id = ? AND b.id = ?
+              AND NOT EXISTS (SELECT 1 FROM loans l WHERE l.book_id = b.id AND l.status = %1$d)
+            ON CONFLICT %2$sDO NOTHING""";
+
+    private static final String ACTIVE_BOOK_ARBITER = "(book_id) WHERE status = %d ".formatted(LoanStatus.ACTIVE.getCode());
+
+    private static final String LOCK_LOANS = """
+            SELECT id, status, loan_date, return_date, user_id, book_id
+            FROM loans
+            WHERE id = ANY (?)
+            ORDER BY id
+            FOR UPDATE""";
+
+    // Only active loans can be returned, and only active or pending ones cancelled.
+    private static final String FINISH_LOAN = "UPDATE loans SET status = %d, return_date = ? WHERE id = ? AND status = %d"
+            .formatted(LoanStatus.COMPLETED.getCode(), LoanStatus.ACTIVE.getCode());
+
+    private static final String CANCEL_LOAN = "UPDATE loans SET status = %d WHERE id = ? AND status IN (%d, %d)"
+            .formatted(LoanStatus.CANCELLED.getCode(), LoanStatus.ACTIVE.getCode(), LoanStatus.PENDING.getCode());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceAllocator ids;
+    private final String insertLoan;
+
+    // H2, used by the tests, accepts ON CONFLICT only without a conflict target.
+    @Autowired
+    public LoanCheckoutRepositoryImpl(JdbcTemplate jdbcTemplate) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = new SequenceAllocator(jdbcTemplate, "loans_seq");
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+        this.insertLoan = INSERT_LOAN.formatted(LoanStatus.ACTIVE.getCode(), "PostgreSQL".equals(database) ? ACTIVE_BOOK_ARBITER : "");
+    }
+
+    @Override
+    public Optional<Long> insertIfAvailable(Loan loan) {
+        long id = ids.next();
+        int rows = jdbcTemplate.update(insertLoan, statement -> setLoan(statement, id, loan));
+        if (rows == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(id);
+    }
+
+    @Override
+    public List<Optional<Long>> insertAllIfAvailable(List<Loan> loans) {
+        if (loans.isEmpty()) {
+            return List.of();
+        }
+        long[] loanIds = new long[loans.size()];
+        for (int i = 0; i < loanIds.length; i++) {
+            loanIds[i] = ids.next();
+        }
+        int[] rows = jdbcTemplate.batchUpdate(insertLoan, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                setLoan(statement, loanIds[index], loans.get(index));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return loans.size();
+            }
+        });
+        List<Optional<Long>> inserted = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            inserted.add(rows[i] == 0 ? Optional.empty() : Optional.of(loanIds[i]));
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<LoanSummary> lockAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<LoanSummary>>) connection -> {
+            Array array = connection.createArrayOf("BIGINT", ids.toArray());
+            try {
+                return jdbcTemplate.query(LOCK_LOANS, (result, row) -> new LoanSummary(
+                        result.getLong("id"),
+                        LoanStatus.fromCode(result.getShort("status")),
+                        result.getObject("loan_date", LocalDate.class),
+                        result.getObject("return_date", LocalDate.class),
+                        result.getObject("user_id", Long.class),
+                        result.getObject("book_id", Long.class)), array);
+            } finally {
+                array.free();
+            }
+        });
+    }
+
+    @Override
+    public int[] finishAll(List<Long> ids, LocalDate date) {
+        return jdbcTemplate.batchUpdate(FINISH_LOAN, ids.stream().map(id -> new Object[]{date, id}).toList());
+    }
+
+    @Override
+    public int[] cancelAll(List<Long> ids) {
+        return jdbcTemplate.batchUpdate(CANCEL_LOAN, ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    private void setLoan(PreparedStatement statement, long id, Loan loan) throws SQLException {
+        statement.setLong(1, id);
+        statement.setShort(2, loan.getStatus().getCode());
+        statement.setObject(3, loan.getLoanDate(), Types.DATE);
+        statement.setObject(4, loan.getReturnDate(), Types.DATE);
+        statement.setLong(5, loan.getUser().getId());
+        statement.setLong(6, loan.getBook().getId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.library.repository;
+
+import com.example.library.domain.LoanCounter;
+import com.example.library.domain.LoanCounterId;
+import com.example.library.domain.LoanCounterScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LoanCounterRepository extends JpaRepository<LoanCounter, LoanCounterId>, LoanCounterUpdateRepository {
+
+    List<LoanCounter> findByIdScope(LoanCounterScope scope);
+
+    List<LoanCounter> findByIdScopeAndIdOwnerId(LoanCounterScope scope, long ownerId);
+
+}
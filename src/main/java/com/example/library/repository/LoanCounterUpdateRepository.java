@@ -0,0 +1,14 @@
+package com.example.library.repository;
+
+import com.example.library.domain.LoanTransition;
+
+import java.util.Collection;
+
+public interface LoanCounterUpdateRepository {
+
+    void record(Collection<LoanTransition> transitions);
+
+    void forgetUser(long userId);
+
+    void forgetBook(long bookId);
+}
@@ -0,0 +1,115 @@
+package com.example.library.repository;
+
+import com.example.library.domain.LoanCounterScope;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.LoanTransition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LoanCounterUpdateRepositoryImpl implements LoanCounterUpdateRepository {
+
+    // Global totals are spread over a few rows so concurrent checkouts do not queue on a single row lock.
+    private static final int GLOBAL_SLOTS = 16;
+
+    private static final String UPDATE_COUNTER =
+            "UPDATE loan_counters SET total = total + ? WHERE scope = ? AND owner_id = ? AND status = ?";
+
+    private static final String INSERT_COUNTER =
+            "INSERT INTO loan_counters (scope, owner_id, status, total) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_LOANS_BY = """
+            SELECT user_id, book_id, status FROM loans WHERE %1$s = ?
+            UNION ALL
+            SELECT user_id, book_id, status FROM loans_archive WHERE %1$s = ?""";
+
+    private static final String DELETE_OWNER = "DELETE FROM loan_counters WHERE scope = ? AND owner_id = ?";
+
+    // Rows are always locked in key order, which keeps concurrent transactions from deadlocking.
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::scope)
+            .thenComparingLong(Key::ownerId)
+            .thenComparing(Key::status);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void record(Collection<LoanTransition> transitions) {
+        long slot = ThreadLocalRandom.current().nextInt(GLOBAL_SLOTS);
+        Map<Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        for (LoanTransition transition : transitions) {
+            if (transition.from() == transition.to()) {
+                continue;
+            }
+            if (transition.from() != null) {
+                add(deltas, transition, transition.from(), slot, -1);
+            }
+            if (transition.to() != null) {
+                add(deltas, transition, transition.to(), slot, 1);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Key, Long>> entries = new ArrayList<>(deltas.entrySet());
+        int[] rows = jdbcTemplate.batchUpdate(UPDATE_COUNTER, entries.stream().map(this::updateArgs).toList());
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] == 0) {
+                insert(entries.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void forgetUser(long userId) {
+        forget(LoanCounterScope.USER, "user_id", userId);
+    }
+
+    @Override
+    public void forgetBook(long bookId) {
+        forget(LoanCounterScope.BOOK, "book_id", bookId);
+    }
+
+    private void forget(LoanCounterScope scope, String column, long ownerId) {
+        List<LoanTransition> removed = jdbcTemplate.query(SELECT_LOANS_BY.formatted(column), (result, row) ->
+                new LoanTransition(result.getObject("user_id", Long.class), result.getObject("book_id", Long.class),
+                        LoanStatus.fromCode(result.getShort("status")), null), ownerId, ownerId);
+        record(removed);
+        jdbcTemplate.update(DELETE_OWNER, scope.getCode(), ownerId);
+    }
+
+    private void add(Map<Key, Long> deltas, LoanTransition transition, LoanStatus status, long slot, long delta) {
+        deltas.merge(new Key(LoanCounterScope.GLOBAL, slot, status), delta, Long::sum);
+        if (transition.userId() != null) {
+            deltas.merge(new Key(LoanCounterScope.USER, transition.userId(), status), delta, Long::sum);
+        }
+        if (transition.bookId() != null) {
+            deltas.merge(new Key(LoanCounterScope.BOOK, transition.bookId(), status), delta, Long::sum);
+        }
+    }
+
+    private void insert(Map.Entry<Key, Long> entry) {
+        Key key = entry.getKey();
+        int inserted = jdbcTemplate.update(INSERT_COUNTER, key.scope().getCode(), key.ownerId(), key.status().getCode(),
+                entry.getValue());
+        if (inserted == 0) {
+            jdbcTemplate.update(UPDATE_COUNTER, updateArgs(entry));
+        }
+    }
+
+    private Object[] updateArgs(Map.Entry<Key, Long> entry) {
+        Key key = entry.getKey();
+        return new Object[]{entry.getValue(), key.scope().getCode(), key.ownerId(), key.status().getCode()};
+    }
+
+    private record Key(LoanCounterScope scope, long ownerId, LoanStatus status) {
+    }
+}
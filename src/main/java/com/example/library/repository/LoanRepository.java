@@ -2,21 +2,42 @@ package com.example.library.repository;
 
 import com.example.library.domain.Loan;
 import com.example.library.domain.LoanStatus;
+import com.example.library.domain.LoanSummary;
 import com.example.library.domain.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanCheckoutRepository {
 
-    @Query("SELECT loan FROM Loan loan WHERE loan.status = 'ACTIVE' AND loan.book.id = :bookId")
+    @Query("SELECT loan FROM Loan loan WHERE loan.status = com.example.library.domain.LoanStatus.ACTIVE AND loan.book.id = :bookId")
     Optional<Loan> findActiveLoanByBook(@Param("bookId") Long bookId);
 
+    @EntityGraph(attributePaths = "book")
     List<Loan> findByUser(User user);
 
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Loan> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT new com.example.library.domain.LoanSummary(loan.id, loan.status, loan.loanDate, loan.returnDate, " +
+            "loan.user.id, loan.book.id) FROM Loan loan WHERE loan.id > :after ORDER BY loan.id")
+    List<LoanSummary> findSummaries(@Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.library.domain.LoanSummary(loan.id, loan.status, loan.loanDate, loan.returnDate, " +
+            "loan.user.id, loan.book.id) FROM Loan loan ORDER BY loan.id")
+    Stream<LoanSummary> streamSummaries();
+
 }
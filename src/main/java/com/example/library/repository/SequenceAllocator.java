@@ -0,0 +1,42 @@
+package com.example.library.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Pooled-lo blocks, like Hibernate, so both can draw from the same sequence.
+class SequenceAllocator {
+
+    private static final String INCREMENT_QUERY =
+            "SELECT increment FROM information_schema.sequences WHERE sequence_schema = current_schema() AND sequence_name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequence;
+    private final String nextValueQuery;
+    private long blockSize;
+    private long next;
+    private long limit;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    SequenceAllocator(JdbcTemplate jdbcTemplate, String sequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequence = sequence;
+        this.nextValueQuery = "SELECT nextval('" + sequence + "')";
+    }
+
+    long next() {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                if (blockSize == 0) {
+                    blockSize = jdbcTemplate.queryForObject(INCREMENT_QUERY, Long.class, sequence);
+                }
+                next = jdbcTemplate.queryForObject(nextValueQuery, Long.class);
+                limit = next + blockSize;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
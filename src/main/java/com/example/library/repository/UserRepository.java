@@ -1,12 +1,20 @@
 package com.example.library.repository;
 
 import com.example.library.domain.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository  extends JpaRepository<User, Long> {
@@ -15,4 +23,10 @@ public interface UserRepository  extends JpaRepository<User, Long> {
 
     @Query("SELECT user FROM User user WHERE user.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT user FROM User user ORDER BY user.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,150 @@
+package com.example.library.services;
+
+import com.example.library.domain.Book;
+import com.example.library.services.export.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class BookImportService {
+
+    public static final int BATCH_SIZE = 1000;
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final List<String> CSV_COLUMNS = List.of("title", "author", "isbn", "category", "publishDate");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Validator validator;
+
+    public ImportReport importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Batch batch = new Batch();
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(row, mapper.readValue(line, Book.class));
+            } catch (JsonProcessingException exception) {
+                batch.reject(row, exception.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    public ImportReport importCsv(InputStream input) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is required");
+        }
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = header.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Missing CSV column: " + CSV_COLUMNS.get(i));
+            }
+        }
+        Batch batch = new Batch();
+        long row = 0;
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (fields.size() != header.size()) {
+                batch.reject(row, "Expected " + header.size() + " columns but found " + fields.size());
+                continue;
+            }
+            try {
+                batch.add(row, toBook(fields, columns));
+            } catch (DateTimeParseException exception) {
+                batch.reject(row, "Invalid publish date: " + exception.getParsedString());
+            }
+        }
+        return batch.finish();
+    }
+
+    private Book toBook(List<String> fields, int[] columns) {
+        Book book = new Book();
+        book.setTitle(fields.get(columns[0]));
+        book.setAuthor(fields.get(columns[1]));
+        book.setIsbn(fields.get(columns[2]));
+        book.setCategory(fields.get(columns[3]));
+        String publishDate = fields.get(columns[4]);
+        book.setPublishDate(publishDate.isBlank() ? null : LocalDate.parse(publishDate, DATE_FORMAT));
+        return book;
+    }
+
+    private class Batch {
+
+        private final long start = System.nanoTime();
+        private final List<ImportReport.RejectedRow> rejectedRows = new ArrayList<>();
+        private List<Book> books = new ArrayList<>(BATCH_SIZE);
+        private long imported;
+        private long rejected;
+
+        void add(long row, Book book) {
+            Set<ConstraintViolation<Book>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                reject(row, violations.iterator().next().getMessage());
+                return;
+            }
+            book.setId(null);
+            books.add(book);
+            if (books.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String reason) {
+            rejected++;
+            if (rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+                rejectedRows.add(new ImportReport.RejectedRow(row, reason));
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - start;
+            double rowsPerSecond = elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+            return new ImportReport(imported, rejected, elapsedNanos / 1_000_000, rowsPerSecond, rejectedRows);
+        }
+
+        private void flush() {
+            if (books.isEmpty()) {
+                return;
+            }
+            bookService.createBooks(books);
+            imported += books.size();
+            books = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.library.services;
+
+import com.example.library.repository.BookRepository;
+import com.example.library.services.events.BookDeletedEvent;
+import com.example.library.services.events.BookSavedEvent;
+import com.example.library.services.search.IndexedBook;
+import com.example.library.services.search.SearchIndex;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+@Observed(name = "library.service")
+@Service
+public class BookSearchService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SearchIndex index;
+
+    public List<IndexedBook> searchBooks(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        try (var books = bookRepository.streamAll()) {
+            index.rebuild(books);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBookSaved(BookSavedEvent event) {
+        index.putBook(event.book());
+    }
+
+    @TransactionalEventListener
+    public void onBookDeleted(BookDeletedEvent event) {
+        index.removeBook(event.bookId());
+    }
+}
@@ -1,30 +1,81 @@
 package com.example.library.services;
 
+import com.example.library.config.CacheConfig;
 import com.example.library.domain.Book;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanCounterRepository;
+import com.example.library.services.events.BookDeletedEvent;
+import com.example.library.services.events.BookSavedEvent;
+import com.example.library.services.export.StreamExporter;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+@Observed(name = "library.service")
 @Service
 public class BookService {
 
     @Autowired
     private BookRepository repository;
 
+    @Autowired
+    private LoanCounterRepository counters;
+
+    @Autowired
+    private StreamExporter exporter;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
     @Transactional
     public Book createBook(Book book) {
-        return repository.save(book);
+        Book newBook = repository.save(book);
+        publisher.publishEvent(new BookSavedEvent(newBook));
+        return newBook;
+    }
+
+    @Transactional
+    public void createBooks(List<Book> books) {
+        repository.insertAll(books);
+        books.forEach(book -> publisher.publishEvent(new BookSavedEvent(book)));
     }
 
+    @Transactional
+    public List<Book> createBooksWithNewIsbn(List<Book> books) {
+        List<String> isbns = books.stream().map(Book::getIsbn).toList();
+        repository.lockIsbns(isbns);
+        Set<String> existingIsbns = new HashSet<>(repository.findExistingIsbns(isbns));
+        List<Book> newBooks = books.stream()
+                .filter(book -> existingIsbns.add(book.getIsbn()))
+                .toList();
+        if (!newBooks.isEmpty()) {
+            createBooks(newBooks);
+        }
+        return newBooks;
+    }
+
+    // Not read-only, so the lookup reads the primary and never caches a lagging row.
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.BOOKS, unless = "#result == null")
     public Optional<Book> getBookById(Long id) {
         return repository.findById(id);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
     public Optional<Book> updateBook(Long id, Book book) {
         Optional<Book> bookById = repository.findById(id);
         if (bookById.isPresent()) {
@@ -34,22 +85,37 @@ public class BookService {
             bookFound.setIsbn(book.getIsbn());
             bookFound.setCategory(book.getCategory());
             bookFound.setPublishDate(book.getPublishDate());
-            return Optional.of(repository.save(bookFound));
+            Book updatedBook = repository.save(bookFound);
+            publisher.publishEvent(new BookSavedEvent(updatedBook));
+            return Optional.of(updatedBook);
         }
         return Optional.empty();
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id")
     public boolean deleteBook(Long id) {
         Optional<Book> bookById = repository.findById(id);
         if (bookById.isPresent()) {
+            counters.forgetBook(id);
             repository.deleteById(id);
+            publisher.publishEvent(new BookDeletedEvent(id));
             return true;
         }
         return false;
     }
 
-    public List<Book> getAllBooks() {
-        return repository.findAll();
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return new HashSet<>(repository.findExistingIds(ids));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> getBooks(Long after, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream output) throws IOException {
+        return exporter.writeNdjson(repository.streamAll(), output);
     }
 }
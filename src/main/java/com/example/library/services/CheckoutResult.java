@@ -0,0 +1,21 @@
+package com.example.library.services;
+
+import com.example.library.domain.Loan;
+
+public record CheckoutResult(Status status, Loan loan) {
+
+    public enum Status {
+        CREATED,
+        USER_NOT_FOUND,
+        BOOK_NOT_FOUND,
+        BOOK_NOT_AVAILABLE,
+    }
+
+    public static CheckoutResult created(Loan loan) {
+        return new CheckoutResult(Status.CREATED, loan);
+    }
+
+    public static CheckoutResult rejected(Status status, Loan loan) {
+        return new CheckoutResult(status, loan);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.library.services;
+
+import com.example.library.domain.Book;
+import com.example.library.services.enrichment.EnrichmentJob;
+import com.example.library.services.enrichment.EnrichmentProgress;
+import com.example.library.services.enrichment.EnrichmentRequest;
+import com.example.library.services.google.BooksAPIService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class EnrichmentService {
+
+    private static final int RETAINED_JOBS = 100;
+
+    @Autowired
+    private BooksAPIService booksAPIService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${library.enrichment.parallelism:4}")
+    private int parallelism;
+
+    @Value("${library.enrichment.batch-size:100}")
+    private int batchSize;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    // Only finished jobs are evicted, so a running job can always be polled.
+    private final Map<Long, EnrichmentJob> runningJobs = new ConcurrentHashMap<>();
+    private final Cache<Long, EnrichmentJob> finishedJobs = Caffeine.newBuilder().maximumSize(RETAINED_JOBS).build();
+
+    public EnrichmentProgress startEnrichment(EnrichmentRequest request) {
+        List<String> queries = Stream.concat(
+                        request.queries().stream().filter(StringUtils::hasText),
+                        request.isbns().stream().filter(StringUtils::hasText).map(isbn -> "isbn:" + isbn.strip()))
+                .distinct()
+                .toList();
+        EnrichmentJob job = new EnrichmentJob(jobIds.incrementAndGet(), queries.size());
+        runningJobs.put(job.getId(), job);
+        Set<String> seenIsbns = ConcurrentHashMap.newKeySet();
+        Flux.fromIterable(queries)
+                .flatMap(query -> booksAPIService.getBookCandidates(query)
+                        .defaultIfEmpty(List.of())
+                        .doOnNext(books -> job.queryDone(books.size()))
+                        .onErrorResume(exception -> {
+                            job.queryFailed();
+                            return Mono.empty();
+                        }), parallelism)
+                .flatMapIterable(Function.identity())
+                .filter(book -> isValid(book, job))
+                .filter(book -> {
+                    if (seenIsbns.add(book.getIsbn())) {
+                        return true;
+                    }
+                    job.duplicates(1);
+                    return false;
+                })
+                .buffer(batchSize)
+                .concatMap(batch -> Mono.fromCallable(() -> bookService.createBooksWithNewIsbn(batch))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .doOnNext(created -> {
+                            job.imported(created.size());
+                            job.duplicates(batch.size() - created.size());
+                        }))
+                .subscribe(null, exception -> {
+                    job.fail(exception);
+                    retire(job);
+                }, () -> {
+                    job.complete();
+                    retire(job);
+                });
+        return job.progress();
+    }
+
+    public Optional<EnrichmentProgress> getProgress(Long id) {
+        EnrichmentJob job = runningJobs.get(id);
+        if (job == null) {
+            job = finishedJobs.getIfPresent(id);
+        }
+        return Optional.ofNullable(job).map(EnrichmentJob::progress);
+    }
+
+    private void retire(EnrichmentJob job) {
+        finishedJobs.put(job.getId(), job);
+        runningJobs.remove(job.getId());
+    }
+
+    private boolean isValid(Book book, EnrichmentJob job) {
+        if (validator.validate(book).isEmpty()) {
+            return true;
+        }
+        job.invalid();
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.library.services;
+
+import java.util.List;
+
+public record ImportReport(long imported, long rejected, long elapsedMillis, double rowsPerSecond,
+                           List<RejectedRow> rejectedRows) {
+
+    public record RejectedRow(long row, String reason) {
+    }
+}
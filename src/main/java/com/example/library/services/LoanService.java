@@ -1,18 +1,40 @@
 package com.example.library.services;
 
+import com.example.library.domain.Book;
+import com.example.library.domain.BulkCheckout;
+import com.example.library.domain.BulkLoanResult;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanCounter;
+import com.example.library.domain.LoanCounterScope;
 import com.example.library.domain.LoanStatus;
-import com.example.library.repository.BookRepository;
+import com.example.library.domain.LoanSummary;
+import com.example.library.domain.LoanTransition;
+import com.example.library.domain.User;
+import com.example.library.repository.LoanCounterRepository;
 import com.example.library.repository.LoanRepository;
-import com.example.library.repository.UserRepository;
+import com.example.library.services.events.LoanCreatedEvent;
+import com.example.library.services.export.StreamExporter;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Observed(name = "library.service")
 @Service
 public class LoanService {
 
@@ -20,53 +42,183 @@ public class LoanService {
     private LoanRepository repository;
 
     @Autowired
-    private BookRepository bookRepository;
+    private LoanCounterRepository counters;
 
     @Autowired
-    private UserRepository userRepository;
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StreamExporter exporter;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
 
     public boolean checkUser(Loan loan) {
-        return userRepository.findById(loan.getUser().getId()).isPresent();
+        return userService.getUserById(loan.getUser().getId()).isPresent();
     }
 
     public boolean checkBook(Loan loan) {
-        return bookRepository.findById(loan.getBook().getId()).isPresent();
+        return bookService.getBookById(loan.getBook().getId()).isPresent();
     }
 
     @Transactional
-    public Optional<Loan> createLoan(Loan loan) {
-        Optional<Loan> loanExists = repository.findActiveLoanByBook(loan.getBook().getId());
-        if (loanExists.isEmpty()) {
-            return Optional.of(repository.save(loan));
+    public CheckoutResult createLoan(Loan loan) {
+        if (loan.getStatus() == null) {
+            loan.setStatus(LoanStatus.ACTIVE);
+        }
+        Optional<Long> loanId = repository.insertIfAvailable(loan);
+        if (loanId.isPresent()) {
+            loan.setId(loanId.get());
+            counters.record(List.of(new LoanTransition(loan.getUser().getId(), loan.getBook().getId(), null, loan.getStatus())));
+            publisher.publishEvent(new LoanCreatedEvent(loan.getId(), loan.getUser().getId(), loan.getBook().getId()));
+            return CheckoutResult.created(loan);
+        }
+        if (!checkUser(loan)) {
+            return CheckoutResult.rejected(CheckoutResult.Status.USER_NOT_FOUND, loan);
+        }
+        if (!checkBook(loan)) {
+            return CheckoutResult.rejected(CheckoutResult.Status.BOOK_NOT_FOUND, loan);
         }
-        return Optional.empty();
+        return CheckoutResult.rejected(CheckoutResult.Status.BOOK_NOT_AVAILABLE, loan);
     }
 
     @Transactional
-    public Optional<Loan> finishLoan(Long id) {
-        Optional<Loan> loanById = repository.findById(id);
-        if (loanById.isPresent()) {
-            Loan loanFound = loanById.get();
-            loanFound.setStatus(LoanStatus.COMPLETED);
-            loanFound.setLoanDate(LocalDate.now());
-            return Optional.of(repository.save(loanFound));
+    public LoanUpdateResult finishLoan(Long id) {
+        return updateLoans(List.of(id), LoanStatus.COMPLETED).get(0);
+    }
+
+    @Transactional
+    public LoanUpdateResult deleteLoan(Long id) {
+        return updateLoans(List.of(id), LoanStatus.CANCELLED).get(0);
+    }
+
+    @Transactional
+    public Optional<List<BulkLoanResult>> createLoans(BulkCheckout checkout) {
+        if (userService.getUserById(checkout.userId()).isEmpty()) {
+            return Optional.empty();
+        }
+        List<Loan> loans = checkout.bookIds().stream()
+                .map(bookId -> newLoan(checkout, bookId))
+                .toList();
+        List<Optional<Long>> loanIds = repository.insertAllIfAvailable(loans);
+        List<Long> rejected = new ArrayList<>();
+        for (int i = 0; i < loans.size(); i++) {
+            if (loanIds.get(i).isEmpty()) {
+                rejected.add(loans.get(i).getBook().getId());
+            }
         }
-        return Optional.empty();
+        Set<Long> existingBooks = rejected.isEmpty() ? Set.of() : bookService.getExistingIds(rejected);
+        List<BulkLoanResult> results = new ArrayList<>(loans.size());
+        List<LoanTransition> transitions = new ArrayList<>(loans.size());
+        for (int i = 0; i < loans.size(); i++) {
+            Long bookId = loans.get(i).getBook().getId();
+            Optional<Long> loanId = loanIds.get(i);
+            if (loanId.isPresent()) {
+                transitions.add(new LoanTransition(checkout.userId(), bookId, null, LoanStatus.ACTIVE));
+                publisher.publishEvent(new LoanCreatedEvent(loanId.get(), checkout.userId(), bookId));
+                results.add(new BulkLoanResult(loanId.get(), bookId, CheckoutResult.Status.CREATED.name()));
+            } else if (existingBooks.contains(bookId)) {
+                results.add(new BulkLoanResult(null, bookId, CheckoutResult.Status.BOOK_NOT_AVAILABLE.name()));
+            } else {
+                results.add(new BulkLoanResult(null, bookId, CheckoutResult.Status.BOOK_NOT_FOUND.name()));
+            }
+        }
+        counters.record(transitions);
+        return Optional.of(results);
+    }
+
+    @Transactional
+    public List<BulkLoanResult> finishLoans(List<Long> ids) {
+        return bulkResults(ids, updateLoans(ids, LoanStatus.COMPLETED), LoanStatus.COMPLETED);
     }
 
     @Transactional
-    public boolean deleteLoan(Long id) {
-        Optional<Loan> loanById = repository.findById(id);
-        if (loanById.isPresent()) {
-            Loan loanFound = loanById.get();
-            loanFound.setStatus(LoanStatus.CANCELLED);
-            repository.save(loanFound);
-            return true;
+    public List<BulkLoanResult> deleteLoans(List<Long> ids) {
+        return bulkResults(ids, updateLoans(ids, LoanStatus.CANCELLED), LoanStatus.CANCELLED);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LoanStatus, Long> getStats(LoanCounterScope scope, Long ownerId) {
+        List<LoanCounter> rows = scope == LoanCounterScope.GLOBAL
+                ? counters.findByIdScope(scope)
+                : counters.findByIdScopeAndIdOwnerId(scope, ownerId);
+        Map<LoanStatus, Long> stats = new EnumMap<>(LoanStatus.class);
+        for (LoanStatus status : LoanStatus.values()) {
+            stats.put(status, 0L);
+        }
+        rows.forEach(counter -> stats.merge(counter.getId().getStatus(), counter.getTotal(), Long::sum));
+        return stats;
+    }
+
+    // Loans not in a state allowing the change are reported as NOT_ACTIVE.
+    private List<LoanUpdateResult> updateLoans(List<Long> ids, LoanStatus status) {
+        Map<Long, LoanSummary> locked = repository.lockAll(ids).stream()
+                .collect(Collectors.toMap(LoanSummary::id, Function.identity()));
+        int[] rows = status == LoanStatus.COMPLETED
+                ? repository.finishAll(ids, LocalDate.now())
+                : repository.cancelAll(ids);
+        List<LoanUpdateResult> results = new ArrayList<>(ids.size());
+        List<LoanTransition> transitions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            LoanSummary loan = locked.get(ids.get(i));
+            if (rows[i] > 0) {
+                transitions.add(new LoanTransition(loan.userId(), loan.bookId(), loan.status(), status));
+                results.add(LoanUpdateResult.UPDATED);
+            } else {
+                results.add(loan == null ? LoanUpdateResult.LOAN_NOT_FOUND : LoanUpdateResult.NOT_ACTIVE);
+            }
+        }
+        counters.record(transitions);
+        return results;
+    }
+
+    private List<BulkLoanResult> bulkResults(List<Long> ids, List<LoanUpdateResult> updates, LoanStatus status) {
+        List<BulkLoanResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            LoanUpdateResult update = updates.get(i);
+            results.add(new BulkLoanResult(ids.get(i), null,
+                    update == LoanUpdateResult.UPDATED ? status.name() : update.name()));
         }
-        return false;
+        return results;
+    }
+
+    private Loan newLoan(BulkCheckout checkout, Long bookId) {
+        User user = new User();
+        user.setId(checkout.userId());
+        Book book = new Book();
+        book.setId(bookId);
+        Loan loan = new Loan();
+        loan.setStatus(LoanStatus.ACTIVE);
+        loan.setLoanDate(checkout.loanDate() == null ? LocalDate.now() : checkout.loanDate());
+        loan.setReturnDate(checkout.returnDate());
+        loan.setUser(user);
+        loan.setBook(book);
+        return loan;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanSummary> getLoans(Long after, int limit) {
+        return repository.findSummaries(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Loan> getFullLoans(Long after, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLoans(OutputStream output) throws IOException {
+        return exporter.writeNdjson(repository.streamSummaries(), output);
     }
 
-    public List<Loan> getAllLoans() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public long exportLoansCsv(OutputStream output) throws IOException {
+        return exporter.writeCsv(repository.streamSummaries(), output,
+                List.of("id", "status", "loanDate", "returnDate", "userId", "bookId"),
+                loan -> Arrays.asList(loan.id(), loan.status(), loan.loanDate(), loan.returnDate(),
+                        loan.userId(), loan.bookId()));
     }
 }
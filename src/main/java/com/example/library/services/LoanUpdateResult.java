@@ -0,0 +1,7 @@
+package com.example.library.services;
+
+public enum LoanUpdateResult {
+    UPDATED,
+    LOAN_NOT_FOUND,
+    NOT_ACTIVE,
+}
@@ -1,42 +1,192 @@
 package com.example.library.services;
 
 import com.example.library.domain.Book;
-import com.example.library.domain.Loan;
 import com.example.library.domain.User;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanArchiveRepository;
 import com.example.library.repository.LoanRepository;
+import com.example.library.services.events.BookDeletedEvent;
+import com.example.library.services.events.BookSavedEvent;
+import com.example.library.services.events.LoanCreatedEvent;
+import com.example.library.services.recommendation.CoBorrowingModel;
+import com.example.library.services.recommendation.RecommendationIndex;
+import com.example.library.services.recommendation.RecommendationStrategy;
+import com.example.library.util.LongHashSet;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Observed(name = "library.service")
 @Service
 public class RecommendationService {
 
     @Autowired
     private LoanRepository loanRepository;
 
+    @Autowired
+    private LoanArchiveRepository archiveRepository;
+
     @Autowired
     private BookRepository bookRepository;
 
-    public List<Book> recommendBooks(User user) {
-        List<Loan> loans = loanRepository.findByUser(user);
-        List<String> categories = getCategories(loans);
-        return bookRepository
-                .findByCategoryIn(categories)
-                .stream()
-                .filter(book -> loans.stream()
-                    .map(Loan::getBook)
-                    .noneMatch(book::equals))
-                .toList();
+    private final int historyWindow;
+    private final int maxNeighbours;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Model model;
+    private List<Change> pending;
+
+    private record Model(RecommendationIndex index, CoBorrowingModel coBorrowing) {
+    }
+
+    private record Change(Long loanId, Consumer<Model> action) {
     }
 
-    private List<String> getCategories(List<Loan> loans) {
-        return loans
+    public RecommendationService(@Value("${library.recommendation.history-window:50}") int historyWindow,
+                                 @Value("${library.recommendation.neighbours:50}") int maxNeighbours) {
+        this.historyWindow = historyWindow;
+        this.maxNeighbours = maxNeighbours;
+        model = newModel();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> recommendBooks(User user, RecommendationStrategy strategy, int limit) {
+        Model current = model();
+        long[] bookIds = switch (strategy) {
+            case CATEGORY -> current.index().recommend(user.getId(), limit);
+            case CO_BORROWING -> current.coBorrowing().recommend(current.index().borrowedBooks(user.getId()), limit);
+        };
+        Map<Long, Book> books = bookRepository
+                .findAllById(Arrays.stream(bookIds).boxed().toList())
                 .stream()
-                .map(loan -> loan.getBook().getCategory())
-                .distinct()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return Arrays.stream(bookIds)
+                .mapToObj(books::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
+
+    // Loans the rebuild already streamed are not replayed.
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Model rebuilt = newModel();
+            LongHashSet loanIds = new LongHashSet();
+            try {
+                try (var books = bookRepository.streamCategories()) {
+                    books.forEach(book -> rebuilt.index().putBook(book.id(), book.category()));
+                }
+                try (var loans = Stream.concat(archiveRepository.streamSummaries(), loanRepository.streamSummaries())) {
+                    loans.filter(loan -> loan.userId() != null && loan.bookId() != null)
+                            .forEach(loan -> {
+                                loanIds.add(loan.id());
+                                addLoan(rebuilt, loan.userId(), loan.bookId());
+                            });
+                }
+            } catch (RuntimeException exception) {
+                swap(null, loanIds);
+                throw exception;
+            }
+            swap(rebuilt, loanIds);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLoanCreated(LoanCreatedEvent event) {
+        apply(event.loanId(), target -> addLoan(target, event.userId(), event.bookId()));
+    }
+
+    @TransactionalEventListener
+    public void onBookSaved(BookSavedEvent event) {
+        long bookId = event.book().getId();
+        String category = event.book().getCategory();
+        apply(null, target -> target.index().putBook(bookId, category));
+    }
+
+    @TransactionalEventListener
+    public void onBookDeleted(BookDeletedEvent event) {
+        apply(null, target -> {
+            target.index().removeBook(event.bookId());
+            target.coBorrowing().removeBook(event.bookId());
+        });
+    }
+
+    long[] borrowedBooks(long userId) {
+        return model().index().borrowedBooks(userId);
+    }
+
+    private Model model() {
+        lock.readLock().lock();
+        try {
+            return model;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Model newModel() {
+        return new Model(new RecommendationIndex(historyWindow), new CoBorrowingModel(maxNeighbours));
+    }
+
+    private void apply(Long loanId, Consumer<Model> action) {
+        lock.writeLock().lock();
+        try {
+            action.accept(model);
+            if (pending != null) {
+                pending.add(new Change(loanId, action));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void swap(Model rebuilt, LongHashSet loanIds) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                pending.stream()
+                        .filter(change -> change.loanId() == null || !loanIds.contains(change.loanId()))
+                        .forEach(change -> change.action().accept(rebuilt));
+                model = rebuilt;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void addLoan(Model target, long userId, long bookId) {
+        long[] history = target.index().recentBooks(userId);
+        if (target.index().addLoan(userId, bookId)) {
+            target.coBorrowing().record(bookId, history);
+        }
+    }
 }
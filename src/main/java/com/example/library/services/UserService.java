@@ -1,20 +1,37 @@
 package com.example.library.services;
 
+import com.example.library.config.CacheConfig;
 import com.example.library.domain.User;
 import com.example.library.repository.UserRepository;
+import com.example.library.repository.LoanCounterRepository;
+import com.example.library.services.export.StreamExporter;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+@Observed(name = "library.service")
 @Service
 public class UserService {
 
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private LoanCounterRepository counters;
+
+    @Autowired
+    private StreamExporter exporter;
+
     @Transactional
     public User createUser(User user) {
         return repository.save(user);
@@ -24,11 +41,15 @@ public class UserService {
         return !repository.existsByEmail(user.getEmail());
     }
 
+    // Reads the primary for the same reason as BookService.getBookById.
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.USERS, unless = "#result == null")
     public Optional<User> getUserById(Long id) {
         return repository.findById(id);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public Optional<User> updateUser(Long id, User user) {
         Optional<User> userById = repository.findById(id);
         if (userById.isPresent()) {
@@ -43,16 +64,32 @@ public class UserService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public boolean deleteUser(Long id) {
         Optional<User> userById = repository.findById(id);
         if (userById.isPresent()) {
+            counters.forgetUser(id);
             repository.deleteById(id);
             return true;
         }
         return false;
     }
 
-    public List<User> getAllUsers() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public List<User> getUsers(Long after, int limit) {
+        return repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream output) throws IOException {
+        return exporter.writeNdjson(repository.streamAll(), output);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUsersCsv(OutputStream output) throws IOException {
+        return exporter.writeCsv(repository.streamAll(), output,
+                List.of("id", "name", "email", "phone", "createdAt"),
+                user -> Arrays.asList(user.getId(), user.getName(), user.getEmail(), user.getPhone(),
+                        user.getCreatedAt()));
     }
 }
@@ -0,0 +1,75 @@
+package com.example.library.services.enrichment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EnrichmentJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private final long id;
+    private final int queries;
+    private final long start = System.nanoTime();
+    private final AtomicInteger queriesDone = new AtomicInteger();
+    private final AtomicInteger failedQueries = new AtomicInteger();
+    private final AtomicLong candidates = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile long end;
+    private volatile String error;
+
+    public EnrichmentJob(long id, int queries) {
+        this.id = id;
+        this.queries = queries;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void queryDone(int candidateCount) {
+        candidates.addAndGet(candidateCount);
+        queriesDone.incrementAndGet();
+    }
+
+    public void queryFailed() {
+        failedQueries.incrementAndGet();
+        queriesDone.incrementAndGet();
+    }
+
+    public void invalid() {
+        invalid.incrementAndGet();
+    }
+
+    public void duplicates(long count) {
+        duplicates.addAndGet(count);
+    }
+
+    public void imported(long count) {
+        imported.addAndGet(count);
+    }
+
+    public void complete() {
+        end = System.nanoTime();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(Throwable exception) {
+        end = System.nanoTime();
+        error = exception.getMessage();
+        status = Status.FAILED;
+    }
+
+    public EnrichmentProgress progress() {
+        long elapsedNanos = (status == Status.RUNNING ? System.nanoTime() : end) - start;
+        double booksPerSecond = elapsedNanos == 0 ? 0 : imported.get() * 1_000_000_000.0 / elapsedNanos;
+        return new EnrichmentProgress(id, status, queries, queriesDone.get(), failedQueries.get(), candidates.get(),
+                imported.get(), duplicates.get(), invalid.get(), elapsedNanos / 1_000_000, booksPerSecond, error);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.library.services.enrichment;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EnrichmentProgress(long id, EnrichmentJob.Status status, int queries, int queriesDone,
+                                 int failedQueries, long candidates, long imported, long duplicates,
+                                 long invalid, long elapsedMillis, double booksPerSecond, String error) {
+}
@@ -0,0 +1,11 @@
+package com.example.library.services.enrichment;
+
+import java.util.List;
+
+public record EnrichmentRequest(List<String> queries, List<String> isbns) {
+
+    public EnrichmentRequest {
+        queries = queries == null ? List.of() : queries;
+        isbns = isbns == null ? List.of() : isbns;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.library.services.events;
+
+public record BookDeletedEvent(Long bookId) {
+}
@@ -0,0 +1,6 @@
+package com.example.library.services.events;
+
+import com.example.library.domain.Book;
+
+public record BookSavedEvent(Book book) {
+}
@@ -0,0 +1,4 @@
+package com.example.library.services.events;
+
+public record LoanCreatedEvent(Long loanId, Long userId, Long bookId) {
+}
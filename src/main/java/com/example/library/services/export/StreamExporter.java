@@ -0,0 +1,93 @@
+package com.example.library.services.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Component
+public class StreamExporter {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final int FLUSH_INTERVAL = 500;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> long writeNdjson(Stream<T> rows, OutputStream output) throws IOException {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (rows; JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    public <T> long writeCsv(Stream<T> rows, OutputStream output, List<String> header,
+                             Function<T, List<?>> values) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (rows) {
+            writeCsvLine(writer, header);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeCsvLine(writer, values.apply(iterator.next()));
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,25 +1,184 @@
 package com.example.library.services.google;
 
+import com.example.library.config.GoogleBooksProperties;
+import com.example.library.domain.Book;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
 
 
 @Service
 public class BooksAPIService {
-    private static final String URL = "https://www.googleapis.com/books/v1/volumes";
-    private static WebClient client = null;
+    public static final String CACHE_NAME = "googleBooks";
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient client;
+    private final VolumesDecoder decoder;
+    private final int maxResults;
+    private final AsyncCache<String, Volumes> cache;
+    private final Cache<String, Volumes> staleCache;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+    private final ObservationRegistry observationRegistry;
+
+    public BooksAPIService(WebClient.Builder builder, GoogleBooksProperties properties, MeterRegistry meterRegistry,
+                           ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        GoogleBooksProperties.Client clientProperties = properties.client();
+        connectionProvider = ConnectionProvider.builder(CACHE_NAME)
+                .maxConnections(clientProperties.maxConnections())
+                .pendingAcquireMaxCount(clientProperties.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(clientProperties.pendingAcquireTimeout())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) clientProperties.connectTimeout().toMillis())
+                .responseTimeout(clientProperties.responseTimeout());
+        client = builder.baseUrl(properties.url())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        maxResults = clientProperties.maxResults();
+        decoder = new VolumesDecoder(maxResults, clientProperties.maxResponseSize().toBytes());
+
+        // Prometheus needs the same tag keys as the caches bound by Boot.
+        cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(properties.cache().maximumSize())
+                .expireAfterWrite(properties.cache().ttl())
+                .recordStats()
+                .<String, Volumes>buildAsync(), CACHE_NAME, Tags.of("cache.manager", CACHE_NAME, "name", CACHE_NAME));
+        staleCache = Caffeine.newBuilder()
+                .maximumSize(properties.cache().maximumSize())
+                .expireAfterWrite(properties.cache().staleTtl())
+                .build();
+
+        GoogleBooksProperties.Resilience resilience = properties.resilience();
+        circuitBreaker = CircuitBreaker.of(CACHE_NAME, CircuitBreakerConfig.custom()
+                .failureRateThreshold(resilience.failureRateThreshold())
+                .slidingWindowSize(resilience.slidingWindowSize())
+                .minimumNumberOfCalls(resilience.minimumNumberOfCalls())
+                .waitDurationInOpenState(resilience.waitDurationInOpenState())
+                .recordException(BooksAPIService::isTransient)
+                .build());
+        bulkhead = Bulkhead.of(CACHE_NAME, BulkheadConfig.custom()
+                .maxConcurrentCalls(resilience.maxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        retry = Retry.backoff(resilience.retries(), resilience.retryBackoff())
+                .maxBackoff(resilience.retryMaxBackoff())
+                .jitter(0.5)
+                .filter(BooksAPIService::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    // Identical queries share one upstream call, traced under the caller that started it.
+    public Mono<Volumes> getVolumes(String query) {
+        String key = normalize(query);
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> cache.get(key,
+                        (normalized, executor) -> fetch(normalized).contextWrite(context).toFuture()), true))
+                .onErrorResume(error -> isUnavailable(error) || isOversized(error),
+                        error -> Mono.justOrEmpty(staleCache.getIfPresent(key)).switchIfEmpty(Mono.error(error)))
+                .name("google.books.volumes")
+                .tap(Micrometer.observation(observationRegistry))
+                .contextCapture();
+    }
+
+    public Mono<List<Book>> getBookCandidates(String query) {
+        return getVolumes(query).map(Volumes::toBooks);
+    }
+
+    // For callers on virtual threads.
+    public Volumes findVolumes(String query) {
+        return getVolumes(query).block();
+    }
+
+    public List<Book> findBookCandidates(String query) {
+        return getBookCandidates(query).block();
+    }
 
-    public BooksAPIService(WebClient.Builder builder) {
-        client = builder.baseUrl(URL).build();
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
     }
 
-    public static Mono<String> getBooks(String query) {
+    private Mono<Volumes> fetch(String query) {
         return client.get().uri(
                 uriBuilder -> uriBuilder
                         .queryParam("q", query)
+                        .queryParam("fields", Volumes.FIELDS)
+                        .queryParam("maxResults", maxResults)
                         .build())
                 .retrieve()
-                .bodyToMono(String.class);
+                .bodyToFlux(DataBuffer.class)
+                .as(decoder::decode)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .retryWhen(retry)
+                .doOnNext(volumes -> staleCache.put(query, volumes));
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    public static boolean isUnavailable(Throwable error) {
+        return isTransient(error) || error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+    }
+
+    public static boolean isBadGateway(Throwable error) {
+        return error instanceof WebClientResponseException || error instanceof DecodingException || isOversized(error);
+    }
+
+    private static boolean isOversized(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataBufferLimitException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    static String normalize(String query) {
+        return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,83 @@
+package com.example.library.services.google;
+
+import com.example.library.domain.Book;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Volumes(int totalItems, List<Volume> items) {
+
+    // Partial response selector, so Google only sends the fields mapped below.
+    static final String FIELDS = "totalItems,items(id,volumeInfo(title,authors,publishedDate,categories,industryIdentifiers))";
+
+    public Volumes {
+        items = items == null ? List.of() : items;
+    }
+
+    public List<Book> toBooks() {
+        return items.stream()
+                .filter(volume -> volume.volumeInfo() != null)
+                .map(volume -> volume.volumeInfo().toBook())
+                .toList();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Volume(String id, VolumeInfo volumeInfo) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record VolumeInfo(String title, List<String> authors, String publishedDate, List<String> categories,
+                             List<IndustryIdentifier> industryIdentifiers) {
+
+        public Book toBook() {
+            Book book = new Book();
+            book.setTitle(title);
+            book.setAuthor(authors == null || authors.isEmpty() ? null : String.join(", ", authors));
+            book.setIsbn(isbn());
+            book.setCategory(categories == null || categories.isEmpty() ? null : categories.get(0));
+            book.setPublishDate(publishDate());
+            return book;
+        }
+
+        public String isbn() {
+            if (industryIdentifiers == null) {
+                return null;
+            }
+            String isbn10 = null;
+            for (IndustryIdentifier identifier : industryIdentifiers) {
+                if ("ISBN_13".equals(identifier.type())) {
+                    return identifier.identifier();
+                }
+                if ("ISBN_10".equals(identifier.type())) {
+                    isbn10 = identifier.identifier();
+                }
+            }
+            return isbn10;
+        }
+
+        // Google reports dates as yyyy, yyyy-MM or yyyy-MM-dd.
+        private LocalDate publishDate() {
+            if (publishedDate == null) {
+                return null;
+            }
+            try {
+                return switch (publishedDate.length()) {
+                    case 4 -> Year.parse(publishedDate).atDay(1);
+                    case 7 -> YearMonth.parse(publishedDate).atDay(1);
+                    default -> LocalDate.parse(publishedDate);
+                };
+            } catch (DateTimeParseException exception) {
+                return null;
+            }
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record IndustryIdentifier(String type, String identifier) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.library.services.google;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decodes each element of "items" as soon as it is complete, up to maxResults.
+class VolumesDecoder {
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final int maxResults;
+    private final long maxResponseSize;
+
+    VolumesDecoder(int maxResults, long maxResponseSize) {
+        this.maxResults = maxResults;
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    Mono<Volumes> decode(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            Parser parser = new Parser();
+            return body.concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.end())))
+                    .take(maxResults)
+                    .collectList()
+                    .map(items -> new Volumes(parser.totalItems, items));
+        });
+    }
+
+    private class Parser {
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private long size;
+        private int depth;
+        private String field;
+        private boolean inItems;
+        private TokenBuffer item;
+        private int totalItems;
+
+        private Parser() {
+            try {
+                parser = MAPPER.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        private List<Volumes.Volume> feed(DataBuffer buffer) {
+            try {
+                size += buffer.readableByteCount();
+                if (size > maxResponseSize) {
+                    throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + maxResponseSize);
+                }
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                feeder.feedInput(bytes, 0, bytes.length);
+                return next();
+            } catch (IOException exception) {
+                throw new DecodingException("JSON decoding error: " + exception.getMessage(), exception);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        private List<Volumes.Volume> end() {
+            try {
+                feeder.endOfInput();
+                return next();
+            } catch (IOException exception) {
+                throw new DecodingException("JSON decoding error: " + exception.getMessage(), exception);
+            }
+        }
+
+        private List<Volumes.Volume> next() throws IOException {
+            List<Volumes.Volume> items = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (item != null) {
+                    item.copyCurrentEvent(parser);
+                }
+                switch (token) {
+                    case START_OBJECT, START_ARRAY -> {
+                        depth++;
+                        if (token == JsonToken.START_ARRAY && depth == 2 && "items".equals(field)) {
+                            inItems = true;
+                        } else if (token == JsonToken.START_OBJECT && depth == 3 && inItems && item == null) {
+                            item = new TokenBuffer(parser);
+                            item.copyCurrentEvent(parser);
+                        }
+                    }
+                    case END_OBJECT, END_ARRAY -> {
+                        depth--;
+                        if (item != null && depth == 2) {
+                            items.add(MAPPER.readValue(item.asParser(MAPPER), Volumes.Volume.class));
+                            item = null;
+                        } else if (depth == 1) {
+                            inItems = false;
+                        }
+                    }
+                    case FIELD_NAME -> {
+                        if (depth == 1) {
+                            field = parser.currentName();
+                        }
+                    }
+                    case VALUE_NUMBER_INT -> {
+                        if (depth == 1 && "totalItems".equals(field)) {
+                            totalItems = parser.getIntValue();
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return items;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.library.services.recommendation;
+
+import com.example.library.util.LongHashSet;
+import com.example.library.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Space-Saving counts: the top neighbours of each book plus an equal buffer of candidates.
+public class CoBorrowingModel {
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::score)
+            .thenComparing(Comparator.comparingLong(Candidate::bookId).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Neighbours> neighbours = new HashMap<>();
+    private final Map<Long, LongHashSet> referrers = new HashMap<>();
+    private final int maxNeighbours;
+
+    private record Candidate(long bookId, int score) {
+    }
+
+    public CoBorrowingModel(int maxNeighbours) {
+        this.maxNeighbours = Math.max(maxNeighbours, 1);
+    }
+
+    public void record(long bookId, long[] history) {
+        lock.writeLock().lock();
+        try {
+            for (long other : history) {
+                if (other != bookId) {
+                    increment(bookId, other);
+                    increment(other, bookId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] neighbours(long bookId) {
+        lock.readLock().lock();
+        try {
+            Neighbours top = neighbours.get(bookId);
+            return top == null ? new long[0] : top.ranked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] recommend(long[] history, int limit) {
+        if (limit <= 0) {
+            return new long[0];
+        }
+        LongHashSet borrowed = new LongHashSet(history.length);
+        for (long bookId : history) {
+            borrowed.add(bookId);
+        }
+        LongIntHashMap scores = new LongIntHashMap();
+        lock.readLock().lock();
+        try {
+            for (long bookId : history) {
+                Neighbours top = neighbours.get(bookId);
+                if (top != null) {
+                    top.forEachNeighbour((other, count) -> {
+                        if (!borrowed.contains(other)) {
+                            scores.addTo(other, count);
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, RANKING);
+        scores.forEach((bookId, score) -> {
+            Candidate candidate = new Candidate(bookId, score);
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        });
+        long[] bookIds = new long[top.size()];
+        for (int i = bookIds.length - 1; i >= 0; i--) {
+            bookIds[i] = top.poll().bookId();
+        }
+        return bookIds;
+    }
+
+    public void removeBook(long bookId) {
+        lock.writeLock().lock();
+        try {
+            Neighbours removed = neighbours.remove(bookId);
+            if (removed != null) {
+                removed.forEachTracked((other, count) -> unlink(other, bookId));
+            }
+            LongHashSet holders = referrers.remove(bookId);
+            if (holders != null) {
+                holders.forEach(holder -> neighbours.get(holder).remove(bookId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int tracked(long bookId) {
+        lock.readLock().lock();
+        try {
+            Neighbours top = neighbours.get(bookId);
+            return top == null ? 0 : top.tracked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void increment(long bookId, long other) {
+        Neighbours top = neighbours.computeIfAbsent(bookId, key -> new Neighbours(maxNeighbours));
+        boolean tracked = top.tracks(other);
+        long evicted = top.increment(other);
+        if (!tracked) {
+            referrers.computeIfAbsent(other, key -> new LongHashSet()).add(bookId);
+        }
+        if (evicted != Neighbours.NONE) {
+            unlink(evicted, bookId);
+        }
+    }
+
+    private void unlink(long bookId, long holder) {
+        LongHashSet holders = referrers.get(bookId);
+        if (holders != null && holders.remove(holder) && holders.isEmpty()) {
+            referrers.remove(bookId);
+        }
+    }
+
+    private static class Neighbours {
+
+        static final long NONE = Long.MIN_VALUE;
+
+        private final Ranking top;
+        private final Ranking candidates;
+
+        Neighbours(int maxNeighbours) {
+            top = new Ranking(maxNeighbours);
+            candidates = new Ranking(maxNeighbours);
+        }
+
+        boolean tracks(long bookId) {
+            return top.contains(bookId) || candidates.contains(bookId);
+        }
+
+        // Returns the candidate evicted to make room for the book, or NONE.
+        long increment(long bookId) {
+            if (top.contains(bookId)) {
+                top.increment(bookId);
+                return NONE;
+            }
+            if (!top.isFull()) {
+                top.add(bookId, 1);
+                return NONE;
+            }
+            long evicted = NONE;
+            int count;
+            if (candidates.contains(bookId)) {
+                count = candidates.remove(bookId) + 1;
+            } else if (!candidates.isFull()) {
+                count = 1;
+            } else {
+                evicted = candidates.weakest();
+                count = candidates.remove(evicted) + 1;
+            }
+            long weakest = top.weakest();
+            if (outranks(count, bookId, top.count(weakest), weakest)) {
+                candidates.add(weakest, top.remove(weakest));
+                top.add(bookId, count);
+            } else {
+                candidates.add(bookId, count);
+            }
+            return evicted;
+        }
+
+        void remove(long bookId) {
+            if (candidates.contains(bookId)) {
+                candidates.remove(bookId);
+            } else if (top.contains(bookId)) {
+                top.remove(bookId);
+                if (candidates.size() > 0) {
+                    long strongest = candidates.strongest();
+                    top.add(strongest, candidates.remove(strongest));
+                }
+            }
+        }
+
+        int tracked() {
+            return top.size() + candidates.size();
+        }
+
+        void forEachNeighbour(LongIntHashMap.Entry action) {
+            top.forEach(action);
+        }
+
+        void forEachTracked(LongIntHashMap.Entry action) {
+            top.forEach(action);
+            candidates.forEach(action);
+        }
+
+        long[] ranked() {
+            Candidate[] ranked = new Candidate[top.size()];
+            int[] next = {0};
+            top.forEach((bookId, count) -> ranked[next[0]++] = new Candidate(bookId, count));
+            Arrays.sort(ranked, RANKING.reversed());
+            return Arrays.stream(ranked).mapToLong(Candidate::bookId).toArray();
+        }
+    }
+
+    private static class Ranking {
+
+        private final long[] ids;
+        private final int[] counts;
+        // Slot + 1, so that the map's 0 default means absent.
+        private final LongIntHashMap slots;
+        private int size;
+
+        Ranking(int capacity) {
+            ids = new long[capacity];
+            counts = new int[capacity];
+            slots = new LongIntHashMap(capacity);
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        boolean contains(long bookId) {
+            return slots.containsKey(bookId);
+        }
+
+        int count(long bookId) {
+            return counts[slots.get(bookId) - 1];
+        }
+
+        long weakest() {
+            return ids[0];
+        }
+
+        long strongest() {
+            int best = 0;
+            for (int slot = 1; slot < size; slot++) {
+                if (outranks(counts[slot], ids[slot], counts[best], ids[best])) {
+                    best = slot;
+                }
+            }
+            return ids[best];
+        }
+
+        void add(long bookId, int count) {
+            set(size, bookId, count);
+            siftUp(size++);
+        }
+
+        void increment(long bookId) {
+            int slot = slots.get(bookId) - 1;
+            counts[slot]++;
+            siftDown(slot);
+        }
+
+        int remove(long bookId) {
+            int slot = slots.remove(bookId) - 1;
+            int count = counts[slot];
+            if (slot < --size) {
+                set(slot, ids[size], counts[size]);
+                siftDown(slot);
+                siftUp(slot);
+            }
+            return count;
+        }
+
+        void forEach(LongIntHashMap.Entry action) {
+            for (int slot = 0; slot < size; slot++) {
+                action.accept(ids[slot], counts[slot]);
+            }
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!weaker(slot, parent)) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int child = 2 * slot + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && weaker(child + 1, child)) {
+                    child++;
+                }
+                if (!weaker(child, slot)) {
+                    return;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+
+        private boolean weaker(int first, int second) {
+            return outranks(counts[second], ids[second], counts[first], ids[first]);
+        }
+
+        private void swap(int first, int second) {
+            long id = ids[first];
+            int count = counts[first];
+            set(first, ids[second], counts[second]);
+            set(second, id, count);
+        }
+
+        private void set(int slot, long bookId, int count) {
+            ids[slot] = bookId;
+            counts[slot] = count;
+            slots.put(bookId, slot + 1);
+        }
+    }
+
+    // Same order as RANKING: the higher count wins, then the lower book id.
+    private static boolean outranks(int count, long bookId, int otherCount, long otherId) {
+        return count > otherCount || count == otherCount && bookId < otherId;
+    }
+}
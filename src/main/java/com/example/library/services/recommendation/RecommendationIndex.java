@@ -0,0 +1,202 @@
+package com.example.library.services.recommendation;
+
+import com.example.library.util.LongHashSet;
+import com.example.library.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class RecommendationIndex {
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::affinity)
+            .thenComparingInt(Candidate::loans)
+            .thenComparing(Comparator.comparingLong(Candidate::bookId).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap loansByBook = new LongIntHashMap();
+    // Most borrowed first; a book is re-inserted whenever its loan count changes.
+    private final Comparator<Long> popularity = Comparator.comparingInt((Long bookId) -> loansByBook.get(bookId))
+            .reversed()
+            .thenComparing(Comparator.naturalOrder());
+    private final Map<String, NavigableSet<Long>> booksByCategory = new HashMap<>();
+    private final Map<Long, String> categoryByBook = new HashMap<>();
+    private final Map<Long, LongHashSet> booksByUser = new HashMap<>();
+    private final Map<Long, RecentBooks> recentByUser = new HashMap<>();
+    private final int historyWindow;
+
+    private record Candidate(long bookId, int affinity, int loans) {
+    }
+
+    public RecommendationIndex(int historyWindow) {
+        this.historyWindow = Math.max(historyWindow, 1);
+    }
+
+    public void putBook(long bookId, String category) {
+        lock.writeLock().lock();
+        try {
+            String previous = categoryByBook.put(bookId, category);
+            if (previous != null && !previous.equals(category)) {
+                booksByCategory.get(previous).remove(bookId);
+            }
+            booksByCategory.computeIfAbsent(category, key -> new TreeSet<>(popularity)).add(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeBook(long bookId) {
+        lock.writeLock().lock();
+        try {
+            String category = categoryByBook.remove(bookId);
+            if (category != null) {
+                booksByCategory.get(category).remove(bookId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean addLoan(long userId, long bookId) {
+        lock.writeLock().lock();
+        try {
+            String category = categoryByBook.get(bookId);
+            NavigableSet<Long> books = category == null ? null : booksByCategory.get(category);
+            if (books != null) {
+                books.remove(bookId);
+            }
+            loansByBook.addTo(bookId, 1);
+            if (books != null) {
+                books.add(bookId);
+            }
+            if (!booksByUser.computeIfAbsent(userId, key -> new LongHashSet()).add(bookId)) {
+                return false;
+            }
+            recentByUser.computeIfAbsent(userId, key -> new RecentBooks(historyWindow)).add(bookId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] borrowedBooks(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet borrowed = booksByUser.get(userId);
+            return borrowed == null ? new long[0] : borrowed.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] recentBooks(long userId) {
+        lock.readLock().lock();
+        try {
+            RecentBooks recent = recentByUser.get(userId);
+            return recent == null ? new long[0] : recent.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] recommend(long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            LongHashSet borrowed = booksByUser.get(userId);
+            if (borrowed == null || limit <= 0) {
+                return new long[0];
+            }
+            Map<String, Integer> affinities = new HashMap<>();
+            borrowed.forEach(bookId -> {
+                String category = categoryByBook.get(bookId);
+                if (category != null) {
+                    affinities.merge(category, 1, Integer::sum);
+                }
+            });
+            NavigableMap<Integer, List<String>> categoriesByAffinity = new TreeMap<>(Comparator.reverseOrder());
+            affinities.forEach((category, affinity) ->
+                    categoriesByAffinity.computeIfAbsent(affinity, key -> new ArrayList<>()).add(category));
+            long[] bookIds = new long[limit];
+            int size = 0;
+            for (Map.Entry<Integer, List<String>> group : categoriesByAffinity.entrySet()) {
+                int missing = limit - size;
+                if (missing == 0) {
+                    break;
+                }
+                PriorityQueue<Candidate> top = new PriorityQueue<>(missing + 1, RANKING);
+                for (String category : group.getValue()) {
+                    int found = 0;
+                    for (Long bookId : booksByCategory.get(category)) {
+                        if (found == missing) {
+                            break;
+                        }
+                        if (!borrowed.contains(bookId)) {
+                            offer(top, new Candidate(bookId, group.getKey(), loansByBook.get(bookId)), missing);
+                            found++;
+                        }
+                    }
+                }
+                long[] ranked = ranked(top);
+                System.arraycopy(ranked, 0, bookIds, size, ranked.length);
+                size += ranked.length;
+            }
+            return Arrays.copyOf(bookIds, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void offer(PriorityQueue<Candidate> top, Candidate candidate, int limit) {
+        if (top.size() < limit) {
+            top.add(candidate);
+        } else if (RANKING.compare(candidate, top.peek()) > 0) {
+            top.poll();
+            top.add(candidate);
+        }
+    }
+
+    private long[] ranked(PriorityQueue<Candidate> top) {
+        long[] bookIds = new long[top.size()];
+        for (int i = bookIds.length - 1; i >= 0; i--) {
+            bookIds[i] = top.poll().bookId();
+        }
+        return bookIds;
+    }
+
+    private static class RecentBooks {
+
+        private final long[] bookIds;
+        private int next;
+        private int size;
+
+        RecentBooks(int capacity) {
+            bookIds = new long[capacity];
+        }
+
+        void add(long bookId) {
+            bookIds[next] = bookId;
+            next = (next + 1) % bookIds.length;
+            size = Math.min(size + 1, bookIds.length);
+        }
+
+        long[] toArray() {
+            long[] recent = new long[size];
+            int first = (next - size + bookIds.length) % bookIds.length;
+            for (int i = 0; i < size; i++) {
+                recent[i] = bookIds[(first + i) % bookIds.length];
+            }
+            return recent;
+        }
+    }
+}
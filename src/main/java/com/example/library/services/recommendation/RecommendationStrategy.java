@@ -0,0 +1,6 @@
+package com.example.library.services.recommendation;
+
+public enum RecommendationStrategy {
+    CATEGORY,
+    CO_BORROWING,
+}
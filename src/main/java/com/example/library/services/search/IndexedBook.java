@@ -0,0 +1,21 @@
+package com.example.library.services.search;
+
+import com.example.library.domain.Book;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public record IndexedBook(
+        Long id,
+        String title,
+        String author,
+        String isbn,
+        String category,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
+        LocalDate publishDate) {
+
+    public static IndexedBook of(Book book) {
+        return new IndexedBook(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getCategory(),
+                book.getPublishDate());
+    }
+}
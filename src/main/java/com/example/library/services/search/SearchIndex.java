@@ -0,0 +1,263 @@
+package com.example.library.services.search;
+
+import com.example.library.domain.Book;
+import com.example.library.util.LongIntHashMap;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+public class SearchIndex {
+
+    static final int ISBN_WEIGHT = 8;
+    static final int TITLE_WEIGHT = 4;
+    static final int AUTHOR_WEIGHT = 2;
+    static final int CATEGORY_WEIGHT = 1;
+
+    private static final int MIN_PREFIX_LENGTH = 3;
+    // Per query token, for prefix matches only.
+    private static final int MAX_PREFIX_POSTINGS = 10_000;
+    private static final double PREFIX_PENALTY = 0.5;
+
+    private static final Comparator<Hit> RANKING = Comparator
+            .comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::bookId).reversed());
+
+    private final int maxPrefixPostings;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Snapshot snapshot = new Snapshot();
+    private List<Consumer<Snapshot>> pending;
+
+    private record Hit(long bookId, double score) {
+    }
+
+    public SearchIndex() {
+        this(MAX_PREFIX_POSTINGS);
+    }
+
+    SearchIndex(int maxPrefixPostings) {
+        this.maxPrefixPostings = maxPrefixPostings;
+    }
+
+    public void putBook(Book book) {
+        IndexedBook entry = IndexedBook.of(book);
+        Map<String, Integer> weights = weights(entry);
+        apply(target -> target.put(entry, weights));
+    }
+
+    public void removeBook(long bookId) {
+        apply(target -> target.remove(bookId));
+    }
+
+    // Changes made during the rebuild are replayed on the new snapshot.
+    public void rebuild(Stream<Book> books) {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Snapshot rebuilt = new Snapshot();
+            try {
+                books.map(IndexedBook::of).forEach(entry -> rebuilt.put(entry, weights(entry)));
+            } catch (RuntimeException exception) {
+                swap(null);
+                throw exception;
+            }
+            swap(rebuilt);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void swap(Snapshot rebuilt) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                pending.forEach(change -> change.accept(rebuilt));
+                snapshot = rebuilt;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<IndexedBook> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + tokenScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING);
+            scores.forEach((bookId, score) -> {
+                top.offer(new Hit(bookId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            IndexedBook[] results = new IndexedBook[top.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = snapshot.books.get(top.poll().bookId());
+            }
+            return List.of(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot.books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Snapshot> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(snapshot);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        int bookCount = snapshot.books.size();
+        LongIntHashMap exact = snapshot.postings.get(token);
+        if (exact != null) {
+            double idf = Math.log(1 + (double) bookCount / exact.size());
+            exact.forEach((bookId, weight) -> scores.merge(bookId, weight * idf, Math::max));
+        }
+        if (token.length() < MIN_PREFIX_LENGTH) {
+            return scores;
+        }
+        int scanned = 0;
+        for (Map.Entry<String, LongIntHashMap> term
+                : snapshot.postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            if (scanned >= maxPrefixPostings) {
+                break;
+            }
+            LongIntHashMap postingList = term.getValue();
+            double idf = Math.log(1 + (double) bookCount / postingList.size());
+            postingList.forEach((bookId, weight) -> scores.merge(bookId, weight * idf * PREFIX_PENALTY, Math::max));
+            scanned += postingList.size();
+        }
+        return scores;
+    }
+
+    private static Map<String, Integer> weights(IndexedBook book) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addTerms(weights, book.title(), TITLE_WEIGHT);
+        addTerms(weights, book.author(), AUTHOR_WEIGHT);
+        addTerms(weights, book.category(), CATEGORY_WEIGHT);
+        addTerms(weights, book.isbn(), ISBN_WEIGHT);
+        List<String> isbnParts = tokenize(book.isbn());
+        if (isbnParts.size() > 1) {
+            weights.merge(String.join("", isbnParts), ISBN_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    private static final class Snapshot {
+
+        private final NavigableMap<String, LongIntHashMap> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> termsByBook = new HashMap<>();
+        private final Map<Long, IndexedBook> books = new HashMap<>();
+
+        private void put(IndexedBook book, Map<String, Integer> weights) {
+            removeTerms(book.id());
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new LongIntHashMap())
+                    .addTo(book.id(), weight));
+            termsByBook.put(book.id(), weights.keySet());
+            books.put(book.id(), book);
+        }
+
+        private void remove(long bookId) {
+            removeTerms(bookId);
+            books.remove(bookId);
+        }
+
+        private void removeTerms(long bookId) {
+            Set<String> terms = termsByBook.remove(bookId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                LongIntHashMap postingList = postings.get(term);
+                postingList.remove(bookId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
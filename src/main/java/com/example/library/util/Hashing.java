@@ -0,0 +1,27 @@
+package com.example.library.util;
+
+final class Hashing {
+
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private Hashing() {
+    }
+
+    static int slot(long key, int mask) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    static int tableSize(int expectedSize) {
+        int capacity = 8;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int threshold(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+}
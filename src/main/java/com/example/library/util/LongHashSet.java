@@ -0,0 +1,132 @@
+package com.example.library.util;
+
+import java.util.function.LongConsumer;
+
+public class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int mask;
+    private int assigned;
+    private boolean containsEmpty;
+
+    public LongHashSet() {
+        this(8);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            return added;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++assigned > Hashing.threshold(keys.length)) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            boolean removed = containsEmpty;
+            containsEmpty = false;
+            return removed;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                shiftKeys(slot);
+                assigned--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return assigned + (containsEmpty ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (containsEmpty) {
+            action.accept(EMPTY);
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size()];
+        int[] index = {0};
+        forEach(key -> values[index[0]++] = key);
+        return values;
+    }
+
+    private void shiftKeys(int gap) {
+        keys[gap] = EMPTY;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = Hashing.slot(keys[next], mask);
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                keys[next] = EMPTY;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = keys;
+        allocate(capacity);
+        for (long key : previous) {
+            if (key != EMPTY) {
+                int slot = Hashing.slot(key, mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+}
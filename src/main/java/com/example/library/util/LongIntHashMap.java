@@ -0,0 +1,180 @@
+package com.example.library.util;
+
+public class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int assigned;
+    private boolean containsEmpty;
+    private int emptyValue;
+
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    public int get(long key) {
+        if (key == EMPTY) {
+            return containsEmpty ? emptyValue : 0;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            containsEmpty = true;
+            return emptyValue += delta;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++assigned > Hashing.threshold(keys.length)) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    public int put(long key, int value) {
+        if (key == EMPTY) {
+            int previous = containsEmpty ? emptyValue : 0;
+            containsEmpty = true;
+            emptyValue = value;
+            return previous;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++assigned > Hashing.threshold(keys.length)) {
+            rehash(keys.length << 1);
+        }
+        return 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int remove(long key) {
+        if (key == EMPTY) {
+            int removed = containsEmpty ? emptyValue : 0;
+            containsEmpty = false;
+            emptyValue = 0;
+            return removed;
+        }
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                int removed = values[slot];
+                shiftKeys(slot);
+                assigned--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return assigned + (containsEmpty ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void forEach(Entry action) {
+        if (containsEmpty) {
+            action.accept(EMPTY, emptyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        allocate(Hashing.tableSize(0));
+        assigned = 0;
+        containsEmpty = false;
+        emptyValue = 0;
+    }
+
+    private void shiftKeys(int gap) {
+        keys[gap] = EMPTY;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = Hashing.slot(keys[next], mask);
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                keys[next] = EMPTY;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] previousKeys = keys;
+        int[] previousValues = values;
+        allocate(capacity);
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != EMPTY) {
+                int slot = Hashing.slot(previousKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = previousKeys[i];
+                values[slot] = previousValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
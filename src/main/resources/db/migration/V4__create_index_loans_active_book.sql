@@ -0,0 +1,4 @@
+CREATE SEQUENCE IF NOT EXISTS loans_seq START WITH 1 INCREMENT BY 50;
+-- Start past the loans already stored, so the first checkout ids do not collide with them.
+SELECT setval('loans_seq', (SELECT COALESCE(MAX(id), 0) FROM loans) + 1, false);
+CREATE UNIQUE INDEX loans_active_book_idx ON loans (book_id) WHERE status = 'ACTIVE';
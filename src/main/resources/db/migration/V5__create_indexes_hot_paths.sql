@@ -0,0 +1,9 @@
+-- Built concurrently so existing catalogs keep accepting writes; Flyway runs a
+-- script made only of CONCURRENTLY statements outside a transaction, which also
+-- needs spring.flyway.postgresql.transactional-lock=false.
+-- findByUser reads the loan columns straight from the index; book_id covers the
+-- ON DELETE CASCADE from books, while active loans per book use loans_active_book_idx.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS loans_user_id_idx ON loans (user_id) INCLUDE (id, book_id, status, loan_date, return_date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS loans_book_id_idx ON loans (book_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS books_category_idx ON books (category);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS books_isbn_idx ON books (isbn);
@@ -0,0 +1,22 @@
+ALTER TABLE loans ALTER COLUMN id TYPE BIGINT;
+ALTER TABLE loans ALTER COLUMN user_id TYPE BIGINT;
+ALTER TABLE loans ALTER COLUMN book_id TYPE BIGINT;
+ALTER TABLE users ALTER COLUMN id TYPE BIGINT;
+ALTER TABLE books ALTER COLUMN id TYPE BIGINT;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq AS BIGINT START WITH 1 INCREMENT BY ${id_increment};
+CREATE SEQUENCE IF NOT EXISTS books_seq AS BIGINT START WITH 1 INCREMENT BY ${id_increment};
+CREATE SEQUENCE IF NOT EXISTS loans_seq AS BIGINT START WITH 1 INCREMENT BY ${id_increment};
+
+-- Ids are handed out in blocks of one increment from each drawn value, so restart
+-- past both the highest existing id and the last block already drawn.
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users),
+        (SELECT last_value + increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'users_seq')) + 1, false);
+SELECT setval('books_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM books),
+        (SELECT last_value + increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'books_seq')) + 1, false);
+SELECT setval('loans_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM loans),
+        (SELECT last_value + increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'loans_seq')) + 1, false);
+
+ALTER SEQUENCE users_seq AS BIGINT INCREMENT BY ${id_increment};
+ALTER SEQUENCE books_seq AS BIGINT INCREMENT BY ${id_increment};
+ALTER SEQUENCE loans_seq AS BIGINT INCREMENT BY ${id_increment};
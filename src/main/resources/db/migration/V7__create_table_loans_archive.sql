@@ -0,0 +1,14 @@
+CREATE TABLE loans_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    status loan_status NOT NULL,
+    loan_date DATE NOT NULL,
+    return_date DATE,
+    user_id BIGINT,
+    book_id BIGINT,
+    archived_at TIMESTAMP NOT NULL,
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+CREATE INDEX loans_archive_user_id_idx ON loans_archive (user_id);
+CREATE INDEX loans_archive_book_id_idx ON loans_archive (book_id);
@@ -0,0 +1,35 @@
+-- Loan statuses are stored as SMALLINT codes (see LoanStatus): 1 ACTIVE, 2 PENDING, 3 CANCELLED, 4 COMPLETED.
+DROP INDEX loans_active_book_idx;
+
+ALTER TABLE loans ALTER COLUMN status TYPE SMALLINT USING (CASE status
+    WHEN 'ACTIVE' THEN 1 WHEN 'PENDING' THEN 2 WHEN 'CANCELLED' THEN 3 WHEN 'COMPLETED' THEN 4 END);
+ALTER TABLE loans_archive ALTER COLUMN status TYPE SMALLINT USING (CASE status
+    WHEN 'ACTIVE' THEN 1 WHEN 'PENDING' THEN 2 WHEN 'CANCELLED' THEN 3 WHEN 'COMPLETED' THEN 4 END);
+DROP TYPE loan_status;
+
+CREATE UNIQUE INDEX loans_active_book_idx ON loans (book_id) WHERE status = 1;
+
+-- Scopes (see LoanCounterScope): 1 GLOBAL, spread over slot owner ids; 2 USER; 3 BOOK.
+CREATE TABLE loan_counters (
+    scope SMALLINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    status SMALLINT NOT NULL,
+    total BIGINT NOT NULL,
+
+    PRIMARY KEY (scope, owner_id, status)
+);
+
+INSERT INTO loan_counters (scope, owner_id, status, total)
+SELECT 1, 0, status, COUNT(*) FROM (
+    SELECT status FROM loans UNION ALL SELECT status FROM loans_archive
+) all_loans GROUP BY status;
+
+INSERT INTO loan_counters (scope, owner_id, status, total)
+SELECT 2, user_id, status, COUNT(*) FROM (
+    SELECT user_id, status FROM loans UNION ALL SELECT user_id, status FROM loans_archive
+) all_loans WHERE user_id IS NOT NULL GROUP BY user_id, status;
+
+INSERT INTO loan_counters (scope, owner_id, status, total)
+SELECT 3, book_id, status, COUNT(*) FROM (
+    SELECT book_id, status FROM loans UNION ALL SELECT book_id, status FROM loans_archive
+) all_loans WHERE book_id IS NOT NULL GROUP BY book_id, status;
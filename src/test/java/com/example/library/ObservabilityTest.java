@@ -0,0 +1,103 @@
+package com.example.library;
+
+import com.example.library.domain.Book;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.services.google.GoogleBooksStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class ObservabilityTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private static GoogleBooksStub stub;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void googleBooks(DynamicPropertyRegistry registry) throws IOException {
+        stub = new GoogleBooksStub();
+        registry.add("google.books.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    public void testExportsLatencyPoolAndCacheMetrics() throws Exception {
+        Book book = bookRepository.save(TestConfig.newBook());
+        User user = userRepository.save(TestConfig.newUser());
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(200, get("/books/" + book.getId()).statusCode());
+            Assertions.assertEquals(200, get("/users/" + user.getId()).statusCode());
+        }
+        Assertions.assertEquals(200, get("/books/api/?title=dune").statusCode());
+
+        HttpResponse<String> response = get("/actuator/prometheus");
+        String metrics = response.body();
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(metrics.contains("http_server_requests_seconds_bucket{application=\"library\""));
+        Assertions.assertTrue(metrics.contains("uri=\"/books/{book_id}\""));
+        Assertions.assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket"));
+        Assertions.assertTrue(metrics.contains("repository=\"BookRepository\""));
+        Assertions.assertTrue(metrics.contains("hikaricp_connections_active"));
+        Assertions.assertTrue(metrics.contains("cache_gets_total{application=\"library\",cache=\"books\""));
+        Assertions.assertTrue(metrics.contains("cache_gets_total{application=\"library\",cache=\"googleBooks\""));
+        Assertions.assertTrue(metrics.contains("library_service_seconds_bucket"));
+        Assertions.assertTrue(metrics.contains("method=\"getBookById\""));
+        Assertions.assertTrue(metrics.contains("google_books_volumes_seconds_bucket"));
+        Assertions.assertTrue(metrics.contains("http_client_requests_seconds_bucket"));
+    }
+
+    @Test
+    public void testPropagatesTraceToGoogleBooks() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/books/api/?title=trace-propagation"))
+                .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                .build();
+
+        Assertions.assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        Assertions.assertTrue(stub.lastQuery().contains("trace-propagation"));
+        Assertions.assertNotNull(stub.lastHeader("traceparent"));
+        Assertions.assertTrue(stub.lastHeader("traceparent").startsWith("00-" + TRACE_ID + "-"));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.library;
+
+import com.example.library.config.QueryStats;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+// MockMvc expectations on the statements a request ran, as recorded by the
+// QueryBudgetFilter, e.g. andExpect(QueryBudget.atMost(1)).
+public class QueryBudget {
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            QueryStats stats = stats(result);
+            Assertions.assertTrue(stats.statements() <= statements,
+                    () -> "Expected at most " + statements + " statements but ran " + stats);
+        };
+    }
+
+    public static ResultMatcher none() {
+        return atMost(0);
+    }
+
+    public static ResultMatcher noRepeats() {
+        return result -> {
+            QueryStats stats = stats(result);
+            Assertions.assertTrue(stats.mostRepeated().map(entry -> entry.getValue() <= 1).orElse(true),
+                    () -> "Expected no repeated statements but ran " + stats);
+        };
+    }
+
+    private static QueryStats stats(MvcResult result) {
+        QueryStats stats = (QueryStats) result.getRequest().getAttribute(QueryStats.ATTRIBUTE);
+        Assertions.assertNotNull(stats, "Request was not counted by the QueryBudgetFilter");
+        return stats;
+    }
+}
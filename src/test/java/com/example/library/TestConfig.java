@@ -10,10 +10,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TestConfig {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final AtomicLong UNIQUE = new AtomicLong(System.nanoTime() % 1_000_000_000L);
 
     public static User user() {
         User user = new User();
@@ -25,6 +27,18 @@ public class TestConfig {
         return user;
     }
 
+    // An unsaved copy of user() with a unique email, for tests that persist it.
+    public static User newUser() {
+        return newUser("user-" + UNIQUE.incrementAndGet() + "@gmail.com");
+    }
+
+    public static User newUser(String email) {
+        User user = user();
+        user.setId(null);
+        user.setEmail(email);
+        return user;
+    }
+
     public static List<User> users() {
         List<User> users = new ArrayList<>();
         users.add(user());
@@ -47,6 +61,18 @@ public class TestConfig {
         return book;
     }
 
+    // An unsaved copy of book() with a unique ISBN, for tests that persist it.
+    public static Book newBook() {
+        return newBook(String.valueOf(9_790_000_000_000L + UNIQUE.incrementAndGet() % 1_000_000_000L));
+    }
+
+    public static Book newBook(String isbn) {
+        Book book = book();
+        book.setId(null);
+        book.setIsbn(isbn);
+        return book;
+    }
+
     public static List<Book> books() {
         List<Book> books = new ArrayList<>();
         books.add(book());
@@ -0,0 +1,72 @@
+package com.example.library.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName();
+        String result = System.getProperty("jmh.result", "target/jmh-result.json");
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(include)
+                .result(result)
+                .resultFormat(ResultFormatType.JSON)
+                .build()).run();
+        if (results.isEmpty()) {
+            throw new IllegalStateException("No benchmark matches " + include);
+        }
+        String baseline = System.getProperty("jmh.baseline", "");
+        if (!baseline.isBlank()) {
+            double tolerance = Double.parseDouble(System.getProperty("jmh.tolerance", "0.2"));
+            List<String> regressions = compare(new File(baseline), new File(result), tolerance);
+            if (!regressions.isEmpty()) {
+                regressions.forEach(System.err::println);
+                System.exit(1);
+            }
+            System.out.println("No regression above " + Math.round(tolerance * 100) + "% against " + baseline);
+        }
+    }
+
+    static List<String> compare(File baseline, File current, double tolerance) throws IOException {
+        Map<String, JsonNode> previous = scores(baseline);
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : scores(current).entrySet()) {
+            JsonNode before = previous.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            // Throughput regresses when it drops, every other mode when the time per operation grows.
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = higherIsBetter ? (oldScore - newScore) / oldScore : (newScore - oldScore) / oldScore;
+            if (change > tolerance) {
+                regressions.add("%s regressed by %.1f%%: %.3f -> %.3f %s".formatted(entry.getKey(), change * 100,
+                        oldScore, newScore, entry.getValue().path("primaryMetric").path("scoreUnit").asText()));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> scores(File file) throws IOException {
+        Map<String, JsonNode> scores = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            scores.put(run.path("benchmark").asText() + run.path("params"), run);
+        }
+        return scores;
+    }
+}
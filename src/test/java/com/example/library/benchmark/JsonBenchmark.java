@@ -0,0 +1,79 @@
+package com.example.library.benchmark;
+
+import com.example.library.config.JacksonConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Book> books;
+    private List<User> users;
+    private List<Loan> loans;
+
+    @Setup
+    public void setUp() {
+        mapper = new JacksonConfig().objectMapper();
+        books = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        loans = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = new Book();
+            book.setId((long) i);
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + i);
+            book.setIsbn("978" + String.format("%010d", i));
+            book.setCategory("Category " + i % 20);
+            book.setPublishDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            books.add(book);
+            User user = new User();
+            user.setId((long) i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@library.com");
+            user.setPhone("(44) 90000-" + i);
+            user.setCreatedAt(LocalDate.of(2020, 1, 1).plusDays(i));
+            users.add(user);
+            Loan loan = new Loan();
+            loan.setId((long) i);
+            loan.setStatus(LoanStatus.ACTIVE);
+            loan.setLoanDate(LocalDate.of(2024, 1, 1));
+            loan.setUser(user);
+            loan.setBook(book);
+            loans.add(loan);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeLoans() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(loans);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryApplication;
+import com.example.library.domain.Book;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.example.library.load.LibraryDataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    static final int USERS = 2_000;
+    static final int BOOKS = 20_000;
+    static final int LOANS = 100_000;
+
+    ConfigurableApplicationContext context;
+    List<User> users;
+    List<Book> books;
+    // Books the generated history left without an active loan, so a checkout of one succeeds.
+    List<Book> availableBooks;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+                .profiles("test")
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        LibraryDataGenerator.Dataset data = new LibraryDataGenerator(LibraryDataGenerator.Settings.of(USERS, BOOKS, LOANS))
+                .populate(context);
+        users = data.users();
+        books = data.books();
+        Set<Long> borrowed = new HashSet<>(bean(JdbcTemplate.class).queryForList(
+                "SELECT book_id FROM loans WHERE status = ?", Long.class, LoanStatus.ACTIVE.getCode()));
+        availableBooks = books.stream().filter(book -> !borrowed.contains(book.getId())).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.library.benchmark;
+
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.User;
+import com.example.library.services.CheckoutResult;
+import com.example.library.services.LoanService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanCheckoutBenchmark {
+
+    private LoanService service;
+    private List<User> users;
+    private List<Book> books;
+    private Book borrowedBook;
+    private int next;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        service = library.bean(LoanService.class);
+        users = library.users;
+        books = library.availableBooks;
+        borrowedBook = books.get(0);
+        created(service.createLoan(loan(users.get(0), borrowedBook)));
+    }
+
+    // A checkout is paired with its return so every invocation finds the book available again;
+    // only books without an active loan are used, so every iteration measures the success path.
+    @Benchmark
+    public Loan checkoutAndReturn() {
+        int index = next++;
+        Loan loan = created(service.createLoan(loan(users.get(index % users.size()), books.get(1 + index % (books.size() - 1)))));
+        service.finishLoan(loan.getId());
+        return loan;
+    }
+
+    @Benchmark
+    public CheckoutResult checkoutUnavailable() {
+        return service.createLoan(loan(users.get(next++ % users.size()), borrowedBook));
+    }
+
+    private Loan created(CheckoutResult result) {
+        if (result.status() != CheckoutResult.Status.CREATED) {
+            throw new IllegalStateException("Checkout of book " + result.loan().getBook().getId() + " was " + result.status());
+        }
+        return result.loan();
+    }
+
+    private Loan loan(User user, Book book) {
+        Loan loan = new Loan();
+        loan.setLoanDate(LocalDate.now());
+        loan.setUser(user);
+        loan.setBook(book);
+        return loan;
+    }
+}
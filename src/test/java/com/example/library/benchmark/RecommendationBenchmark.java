@@ -0,0 +1,38 @@
+package com.example.library.benchmark;
+
+import com.example.library.domain.Book;
+import com.example.library.domain.User;
+import com.example.library.services.RecommendationService;
+import com.example.library.services.recommendation.RecommendationStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+
+    @Param({"CATEGORY", "CO_BORROWING"})
+    private RecommendationStrategy strategy;
+
+    private RecommendationService service;
+    private List<User> users;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        service = library.bean(RecommendationService.class);
+        users = library.users;
+    }
+
+    @Benchmark
+    public List<Book> recommendBooks() {
+        User user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        return service.recommendBooks(user, strategy, 20);
+    }
+}
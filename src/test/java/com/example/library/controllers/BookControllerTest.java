@@ -2,6 +2,8 @@ package com.example.library.controllers;
 
 import com.example.library.TestConfig;
 import com.example.library.domain.Book;
+import com.example.library.services.BookSearchService;
+import com.example.library.services.search.IndexedBook;
 import com.example.library.services.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,13 +13,17 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 public class BookControllerTest {
@@ -27,6 +33,9 @@ public class BookControllerTest {
     @Mock
     private BookService service;
 
+    @Mock
+    private BookSearchService searchService;
+
     @InjectMocks
     private BookController controller;
 
@@ -41,7 +50,7 @@ public class BookControllerTest {
         List<Book> books = TestConfig.books();
         Book book = books.get(0);
 
-        when(service.getAllBooks()).thenReturn(books);
+        when(service.getBooks(0L, 100)).thenReturn(books);
 
         mvc.perform(MockMvcRequestBuilders.get("/books/"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -52,6 +61,58 @@ public class BookControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].publishDate").value(book.getPublishDate()));
     }
 
+    @Test
+    public void testSearchBooks() throws Exception {
+        Book book = TestConfig.book();
+
+        when(searchService.searchBooks("tolkien", 5)).thenReturn(List.of(IndexedBook.of(book)));
+
+        mvc.perform(MockMvcRequestBuilders.get("/books/search").param("q", "tolkien").param("limit", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(book.getId()));
+
+        mvc.perform(MockMvcRequestBuilders.get("/books/search").param("q", " "))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testGetBooksPage() throws Exception {
+        Book book = TestConfig.book();
+
+        when(service.getBooks(0L, 1)).thenReturn(List.of(book));
+        when(service.getBooks(book.getId(), 1)).thenReturn(List.of());
+
+        mvc.perform(MockMvcRequestBuilders.get("/books/").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-After", book.getId().toString()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(book.getId()));
+
+        mvc.perform(MockMvcRequestBuilders.get("/books/")
+                        .param("after", book.getId().toString())
+                        .param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-After"))
+                .andExpect(MockMvcResultMatchers.content().json("[]"));
+    }
+
+    @Test
+    public void testExportBooks() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(0);
+            output.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return 2L;
+        }).when(service).exportBooks(any(OutputStream.class));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/books/").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     public void testGetBook() throws Exception {
         Book book = TestConfig.book();
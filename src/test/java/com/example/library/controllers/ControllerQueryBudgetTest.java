@@ -0,0 +1,144 @@
+package com.example.library.controllers;
+
+import com.example.library.QueryBudget;
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Statement budgets for the endpoints against the embedded database; the other
+// controller tests mock the services and never reach JDBC.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private User user;
+    private List<Book> books;
+    private List<Loan> loans;
+
+    @BeforeEach
+    public void setUp() {
+        user = TestConfig.newUser();
+        user = userRepository.save(user);
+        books = new ArrayList<>();
+        loans = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Book book = TestConfig.newBook();
+            books.add(bookRepository.save(book));
+            Loan loan = new Loan();
+            loan.setStatus(LoanStatus.COMPLETED);
+            loan.setLoanDate(LocalDate.of(2024, 9, 10));
+            loan.setUser(user);
+            loan.setBook(books.get(i));
+            loans.add(loanRepository.save(loan));
+        }
+    }
+
+    @Test
+    public void testLookupsRunOneStatementAndHitTheCacheAfterwards() throws Exception {
+        String bookPath = "/books/" + books.get(0).getId();
+        String userPath = "/users/" + user.getId();
+
+        mvc.perform(MockMvcRequestBuilders.get(bookPath))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get(bookPath))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.none());
+        mvc.perform(MockMvcRequestBuilders.get(userPath))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get(userPath))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.none());
+    }
+
+    @Test
+    public void testPagesRunOneStatementWhateverTheirSize() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/books/").param("limit", "20"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get("/users/").param("limit", "20"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get("/loans/").param("limit", "20"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get("/loans/").param("limit", "20").param("view", "full"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].book.id").exists())
+                .andExpect(QueryBudget.atMost(1))
+                .andExpect(QueryBudget.noRepeats());
+    }
+
+    @Test
+    public void testStatsAndRecommendationsDoNotScanLoans() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/loans/stats").param("user_id", user.getId().toString()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+        mvc.perform(MockMvcRequestBuilders.get("/users/recommend/" + user.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(2))
+                .andExpect(QueryBudget.noRepeats());
+    }
+
+    @Test
+    public void testCheckoutAndReturnStayWithinBudget() throws Exception {
+        // A first checkout in a fresh context also reads the sequence increment, draws an
+        // id block and creates this user's counter rows; the budget is for the steady state.
+        mvc.perform(MockMvcRequestBuilders.post("/loans/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"status": "ACTIVE", "loanDate": "10-09-2024", "user": {"id": %d}, "book": {"id": %d}}
+                                """.formatted(user.getId(), books.get(1).getId())))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        mvc.perform(MockMvcRequestBuilders.post("/loans/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"status": "ACTIVE", "loanDate": "10-09-2024", "user": {"id": %d}, "book": {"id": %d}}
+                                """.formatted(user.getId(), books.get(0).getId())))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(QueryBudget.atMost(5));
+        Loan loan = loanRepository.findByUser(user).stream()
+                .filter(candidate -> candidate.getStatus() == LoanStatus.ACTIVE)
+                .filter(candidate -> candidate.getBook().getId().equals(books.get(0).getId()))
+                .findFirst()
+                .orElseThrow();
+
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loan.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(QueryBudget.atMost(7));
+    }
+}
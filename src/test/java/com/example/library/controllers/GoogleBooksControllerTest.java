@@ -0,0 +1,80 @@
+package com.example.library.controllers;
+
+import com.example.library.services.google.BooksAPIService;
+import com.example.library.services.google.Volumes;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+public class GoogleBooksControllerTest {
+
+    private MockMvc mvc;
+
+    @Mock
+    private BooksAPIService service;
+
+    @InjectMocks
+    private GoogleBooksController controller;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void testGetBooksFromAPI() throws Exception {
+        when(service.getVolumes("dune")).thenReturn(Mono.just(new Volumes(0, List.of())));
+
+        perform("/books/api/")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalItems").value(0));
+    }
+
+    @Test
+    public void testGetBooksFromAPIWhenUnavailable() throws Exception {
+        when(service.getVolumes("dune")).thenReturn(Mono.error(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test"))));
+
+        perform("/books/api/").andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testGetBooksFromAPIWhenResponseIsTooLarge() throws Exception {
+        when(service.getVolumes("dune")).thenReturn(Mono.error(new DataBufferLimitException("too large")));
+
+        perform("/books/api/").andExpect(MockMvcResultMatchers.status().isBadGateway());
+    }
+
+    @Test
+    public void testGetBookCandidatesFromAPIWhenRejected() throws Exception {
+        when(service.getBookCandidates("dune")).thenReturn(Mono.error(
+                WebClientResponseException.create(400, "Bad Request", null, null, null)));
+
+        perform("/books/api/candidates").andExpect(MockMvcResultMatchers.status().isBadGateway());
+    }
+
+    private ResultActions perform(String path) throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(path).param("title", "dune"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.library.controllers;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanCounterScope;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.services.LoanService;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LoanCheckoutConcurrencyTest {
+
+    private static final int REQUESTS = 100;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testNoDoubleCheckoutUnderParallelRequests() throws Exception {
+        User user = TestConfig.newUser();
+        user = userRepository.save(user);
+        Book book = TestConfig.newBook();
+        book = bookRepository.save(book);
+        String loanJson = """
+                {"status": "ACTIVE", "loanDate": "10-09-2024", "user": {"id": %d}, "book": {"id": %d}}
+                """.formatted(user.getId(), book.getId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(() -> {
+                start.await();
+                return mvc.perform(MockMvcRequestBuilders.post("/loans/")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(loanJson))
+                        .andReturn().getResponse().getStatus();
+            });
+        }
+        List<Future<Integer>> responses = requests.stream().map(executor::submit).toList();
+        start.countDown();
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<Integer> response : responses) {
+            statuses.add(response.get());
+        }
+        executor.shutdown();
+
+        Map<Integer, Long> byStatus = statuses.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        Assertions.assertEquals(Map.of(201, 1L, 409, (long) REQUESTS - 1), byStatus);
+        Assertions.assertEquals(1, loanRepository.findByUser(user).size());
+        mvc.perform(MockMvcRequestBuilders.get("/loans/stats").param("book_id", book.getId().toString()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ACTIVE").value(1));
+    }
+
+    @Test
+    public void testRejectsUnknownUserAndBook() throws Exception {
+        Book book = TestConfig.newBook();
+        book = bookRepository.save(book);
+
+        mvc.perform(MockMvcRequestBuilders.post("/loans/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"status": "ACTIVE", "loanDate": "10-09-2024", "user": {"id": 9999}, "book": {"id": %d}}
+                                """.formatted(book.getId())))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.content().string("User not found"));
+    }
+
+    @Test
+    public void testBulkCheckoutAndReturn() throws Exception {
+        User user = TestConfig.newUser("bulk@gmail.com");
+        user = userRepository.save(user);
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = TestConfig.newBook();
+            bookIds.add(bookRepository.save(book).getId());
+        }
+        String checkoutJson = """
+                {"userId": %d, "loanDate": "10-09-2024", "bookIds": [%d, %d, %d, %d]}
+                """.formatted(user.getId(), bookIds.get(0), bookIds.get(1), bookIds.get(0), 9999L);
+
+        mvc.perform(MockMvcRequestBuilders.post("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(checkoutJson))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].status")
+                        .value(Matchers.contains("CREATED", "CREATED", "BOOK_NOT_AVAILABLE", "BOOK_NOT_FOUND")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[2].loanId").doesNotExist());
+
+        List<Long> loanIds = loanRepository.findByUser(user).stream().map(Loan::getId).toList();
+        Assertions.assertEquals(2, loanIds.size());
+
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[%d, %d]".formatted(loanIds.get(0), 9999L)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].status")
+                        .value(Matchers.contains("COMPLETED", "LOAN_NOT_FOUND")));
+
+        mvc.perform(MockMvcRequestBuilders.delete("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[%d]".formatted(loanIds.get(1))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("CANCELLED"));
+        Assertions.assertEquals(LoanStatus.CANCELLED, loanRepository.findById(loanIds.get(1)).orElseThrow().getStatus());
+        Loan returned = loanRepository.findById(loanIds.get(0)).orElseThrow();
+        Assertions.assertEquals(LocalDate.of(2024, 9, 10), returned.getLoanDate());
+        Assertions.assertEquals(LocalDate.now(), returned.getReturnDate());
+
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[%d, %d]".formatted(loanIds.get(0), loanIds.get(1))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].status")
+                        .value(Matchers.contains("NOT_ACTIVE", "NOT_ACTIVE")));
+        mvc.perform(MockMvcRequestBuilders.delete("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[%d]".formatted(loanIds.get(0))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("NOT_ACTIVE"));
+        Assertions.assertEquals(LoanStatus.COMPLETED, loanRepository.findById(loanIds.get(0)).orElseThrow().getStatus());
+        Assertions.assertEquals(LoanStatus.CANCELLED, loanRepository.findById(loanIds.get(1)).orElseThrow().getStatus());
+        mvc.perform(MockMvcRequestBuilders.get("/loans/stats").param("user_id", user.getId().toString()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ACTIVE").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.COMPLETED").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.CANCELLED").value(1));
+
+        mvc.perform(MockMvcRequestBuilders.post("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": %d}".formatted(user.getId())))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.post("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\": [%d]}".formatted(bookIds.get(2))))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testLoanStatsFollowStatusChanges() throws Exception {
+        User user = TestConfig.newUser("stats@gmail.com");
+        user = userRepository.save(user);
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Book book = TestConfig.newBook();
+            book = bookRepository.save(book);
+            Loan loan = new Loan();
+            loan.setLoanDate(LocalDate.of(2024, 9, 10));
+            loan.setUser(user);
+            loan.setBook(book);
+            loanIds.add(loanService.createLoan(loan).loan().getId());
+        }
+        Map<LoanStatus, Long> before = loanService.getStats(LoanCounterScope.GLOBAL, null);
+
+        loanService.finishLoan(loanIds.get(0));
+        loanService.finishLoan(loanIds.get(0));
+        loanService.deleteLoan(loanIds.get(1));
+
+        Map<LoanStatus, Long> after = loanService.getStats(LoanCounterScope.GLOBAL, null);
+        Assertions.assertEquals(before.get(LoanStatus.ACTIVE) - 2, after.get(LoanStatus.ACTIVE));
+        Assertions.assertEquals(before.get(LoanStatus.COMPLETED) + 1, after.get(LoanStatus.COMPLETED));
+        Assertions.assertEquals(before.get(LoanStatus.CANCELLED) + 1, after.get(LoanStatus.CANCELLED));
+        Assertions.assertEquals(Map.of(LoanStatus.ACTIVE, 1L, LoanStatus.PENDING, 0L, LoanStatus.CANCELLED, 1L,
+                LoanStatus.COMPLETED, 1L), loanService.getStats(LoanCounterScope.USER, user.getId()));
+
+        mvc.perform(MockMvcRequestBuilders.get("/loans/stats").param("user_id", "1").param("book_id", "1"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void testSingleFinishAndCancelOnlyChangeOpenLoans() throws Exception {
+        User user = TestConfig.newUser("single@gmail.com");
+        user = userRepository.save(user);
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Book book = TestConfig.newBook();
+            book = bookRepository.save(book);
+            Loan loan = new Loan();
+            loan.setLoanDate(LocalDate.of(2024, 9, 10));
+            loan.setUser(user);
+            loan.setBook(book);
+            loanIds.add(loanService.createLoan(loan).loan().getId());
+        }
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loanIds.get(0)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mvc.perform(MockMvcRequestBuilders.delete("/loans/" + loanIds.get(1)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        jdbcTemplate.update("UPDATE loans SET return_date = ? WHERE id = ?", LocalDate.of(2024, 9, 20), loanIds.get(0));
+
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loanIds.get(0)))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Loan is not active"));
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loanIds.get(1)))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+        mvc.perform(MockMvcRequestBuilders.delete("/loans/" + loanIds.get(0)))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Loan is not active or pending"));
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + 9999L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Loan finished = loanRepository.findById(loanIds.get(0)).orElseThrow();
+        Assertions.assertEquals(LoanStatus.COMPLETED, finished.getStatus());
+        Assertions.assertEquals(LocalDate.of(2024, 9, 20), finished.getReturnDate());
+        Assertions.assertEquals(LoanStatus.CANCELLED, loanRepository.findById(loanIds.get(1)).orElseThrow().getStatus());
+        Assertions.assertEquals(Map.of(LoanStatus.ACTIVE, 0L, LoanStatus.PENDING, 0L, LoanStatus.CANCELLED, 1L,
+                LoanStatus.COMPLETED, 1L), loanService.getStats(LoanCounterScope.USER, user.getId()));
+    }
+
+    @Test
+    public void testCheckoutIdsShareSequenceBlocks() {
+        User user = TestConfig.newUser("sequence@gmail.com");
+        user = userRepository.save(user);
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Book book = TestConfig.newBook();
+            book = bookRepository.save(book);
+            Loan loan = new Loan();
+            loan.setLoanDate(LocalDate.of(2024, 9, 10));
+            loan.setUser(user);
+            loan.setBook(book);
+            loanIds.add(loanService.createLoan(loan).loan().getId());
+        }
+
+        // One nextval per checkout would space the ids a whole increment (50) apart.
+        Assertions.assertEquals(60, loanIds.stream().distinct().count());
+        Assertions.assertTrue(loanIds.get(59) - loanIds.get(0) < 120, "Ids " + loanIds);
+    }
+}
@@ -3,8 +3,11 @@ package com.example.library.controllers;
 import com.example.library.TestConfig;
 import com.example.library.domain.Book;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanSummary;
 import com.example.library.services.BookService;
+import com.example.library.services.CheckoutResult;
 import com.example.library.services.LoanService;
+import com.example.library.services.LoanUpdateResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,7 +22,9 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class LoanControllerTest {
@@ -40,18 +45,35 @@ public class LoanControllerTest {
 
     @Test
     public void testGetLoans() throws Exception {
-        List<Loan> loans = TestConfig.loans();
-        Loan loan = loans.get(0);
+        Loan loan = TestConfig.loan();
+        LoanSummary summary = new LoanSummary(loan.getId(), loan.getStatus(), loan.getLoanDate(),
+                loan.getReturnDate(), loan.getUser().getId(), loan.getBook().getId());
 
-        when(service.getAllLoans()).thenReturn(loans);
+        when(service.getLoans(0L, 100)).thenReturn(List.of(summary));
 
         mvc.perform(MockMvcRequestBuilders.get("/loans/"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(loan.getId()))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].book").value(loan.getBook()))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].user").value(loan.getUser()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].bookId").value(loan.getBook().getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].userId").value(loan.getUser().getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(loan.getStatus().toString()))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[0].loanDate").value(loan.getLoanDate()));
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].loanDate").value("10-09-2024"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].book").doesNotExist());
+    }
+
+    @Test
+    public void testGetFullLoans() throws Exception {
+        List<Loan> loans = TestConfig.loans();
+        Loan loan = loans.get(0);
+
+        when(service.getFullLoans(0L, 100)).thenReturn(loans);
+
+        mvc.perform(MockMvcRequestBuilders.get("/loans/").param("view", "full"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(loan.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].book.id").value(loan.getBook().getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].user.id").value(loan.getUser().getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(loan.getStatus().toString()));
     }
 
 //    @Test
@@ -85,9 +107,7 @@ public class LoanControllerTest {
         Loan loan = TestConfig.loan();
         String loanJson = TestConfig.loanJson();
 
-        when(service.checkUser(loan)).thenReturn(true);
-        when(service.checkBook(loan)).thenReturn(true);
-        when(service.createLoan(loan)).thenReturn(Optional.of(loan));
+        when(service.createLoan(loan)).thenReturn(CheckoutResult.created(loan));
 
         mvc.perform(MockMvcRequestBuilders.post("/loans/")
            .contentType(MediaType.APPLICATION_JSON)
@@ -101,7 +121,7 @@ public class LoanControllerTest {
         Loan loan = TestConfig.loan();
         String loanJson = TestConfig.loanJson();
 
-        when(service.checkUser(loan)).thenReturn(false);
+        when(service.createLoan(loan)).thenReturn(CheckoutResult.rejected(CheckoutResult.Status.USER_NOT_FOUND, loan));
 
         mvc.perform(MockMvcRequestBuilders.post("/loans/")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -115,8 +135,7 @@ public class LoanControllerTest {
         Loan loan = TestConfig.loan();
         String loanJson = TestConfig.loanJson();
 
-        when(service.checkUser(loan)).thenReturn(true);
-        when(service.checkBook(loan)).thenReturn(false);
+        when(service.createLoan(loan)).thenReturn(CheckoutResult.rejected(CheckoutResult.Status.BOOK_NOT_FOUND, loan));
 
         mvc.perform(MockMvcRequestBuilders.post("/loans/")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -130,9 +149,7 @@ public class LoanControllerTest {
         Loan loan = TestConfig.loan();
         String loanJson = TestConfig.loanJson();
 
-        when(service.checkUser(loan)).thenReturn(true);
-        when(service.checkBook(loan)).thenReturn(true);
-        when(service.createLoan(loan)).thenReturn(Optional.empty());
+        when(service.createLoan(loan)).thenReturn(CheckoutResult.rejected(CheckoutResult.Status.BOOK_NOT_AVAILABLE, loan));
 
         mvc.perform(MockMvcRequestBuilders.post("/loans/")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -145,7 +162,7 @@ public class LoanControllerTest {
     public void testFinishLoan() throws Exception {
         Loan loan = TestConfig.loan();
 
-        when(service.finishLoan(loan.getId())).thenReturn(Optional.of(loan));
+        when(service.finishLoan(loan.getId())).thenReturn(LoanUpdateResult.UPDATED);
 
         mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loan.getId()))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -156,18 +173,29 @@ public class LoanControllerTest {
     public void testFinishLoanNotFound() throws Exception {
         Loan loan = TestConfig.loan();
 
-        when(service.finishLoan(loan.getId())).thenReturn(Optional.empty());
+        when(service.finishLoan(loan.getId())).thenReturn(LoanUpdateResult.LOAN_NOT_FOUND);
 
         mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loan.getId()))
                 .andExpect(MockMvcResultMatchers.status().isNotFound())
                 .andExpect(MockMvcResultMatchers.content().string("Loan not found"));
     }
 
+    @Test
+    public void testFinishLoanNotActive() throws Exception {
+        Loan loan = TestConfig.loan();
+
+        when(service.finishLoan(loan.getId())).thenReturn(LoanUpdateResult.NOT_ACTIVE);
+
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/" + loan.getId()))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Loan is not active"));
+    }
+
     @Test
     public void testDeleteLoan() throws Exception {
         Loan loan = TestConfig.loan();
 
-        when(service.deleteLoan(loan.getId())).thenReturn(true);
+        when(service.deleteLoan(loan.getId())).thenReturn(LoanUpdateResult.UPDATED);
 
         mvc.perform(MockMvcRequestBuilders.delete("/loans/" + loan.getId()))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -178,11 +206,41 @@ public class LoanControllerTest {
     public void testDeleteLoanNotFound() throws Exception {
         Loan loan = TestConfig.loan();
 
-        when(service.deleteLoan(loan.getId())).thenReturn(false);
+        when(service.deleteLoan(loan.getId())).thenReturn(LoanUpdateResult.LOAN_NOT_FOUND);
 
         mvc.perform(MockMvcRequestBuilders.delete("/loans/" + loan.getId()))
                 .andExpect(MockMvcResultMatchers.status().isNotFound())
                 .andExpect(MockMvcResultMatchers.content().string("Loan not found"));
     }
 
+    @Test
+    public void testDeleteLoanNotActive() throws Exception {
+        Loan loan = TestConfig.loan();
+
+        when(service.deleteLoan(loan.getId())).thenReturn(LoanUpdateResult.NOT_ACTIVE);
+
+        mvc.perform(MockMvcRequestBuilders.delete("/loans/" + loan.getId()))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().string("Loan is not active or pending"));
+    }
+
+    @Test
+    public void testRejectsInvalidBulkRequests() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, Paging.MAX_LIMIT + 1).boxed().toList().toString();
+        for (String body : List.of("[]", "[1, null]", tooMany)) {
+            mvc.perform(MockMvcRequestBuilders.patch("/loans/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mvc.perform(MockMvcRequestBuilders.delete("/loans/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mvc.perform(MockMvcRequestBuilders.post("/loans/bulk").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"userId\": 1, \"bookIds\": " + body + "}"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+        mvc.perform(MockMvcRequestBuilders.patch("/loans/bulk").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.post("/loans/bulk").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
 }
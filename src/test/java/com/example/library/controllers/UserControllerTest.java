@@ -2,7 +2,9 @@ package com.example.library.controllers;
 
 import com.example.library.TestConfig;
 import com.example.library.domain.User;
+import com.example.library.services.RecommendationService;
 import com.example.library.services.UserService;
+import com.example.library.services.recommendation.RecommendationStrategy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,9 @@ public class UserControllerTest {
     @Mock
     private UserService service;
 
+    @Mock
+    private RecommendationService recommendationService;
+
     @InjectMocks
     private UserController controller;
 
@@ -42,7 +47,7 @@ public class UserControllerTest {
         List<User> users = TestConfig.users();
         User user = users.get(0);
 
-        when(service.getAllUsers()).thenReturn(users);
+        when(service.getUsers(0L, 100)).thenReturn(users);
 
         mvc.perform(MockMvcRequestBuilders.get("/users/"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -78,6 +83,21 @@ public class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.content().string("User not found"));
     }
 
+    @Test
+    public void testRecommendBooks() throws Exception {
+        User user = TestConfig.user();
+
+        when(service.getUserById(user.getId())).thenReturn(Optional.of(user));
+        when(recommendationService.recommendBooks(user, RecommendationStrategy.CO_BORROWING, 5))
+                .thenReturn(TestConfig.books());
+
+        mvc.perform(MockMvcRequestBuilders.get("/users/recommend/" + user.getId())
+                        .param("strategy", "CO_BORROWING")
+                        .param("limit", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(TestConfig.book().getId()));
+    }
+
     @Test
     public void testCreateUserSuccess() throws Exception {
         User user = TestConfig.user();
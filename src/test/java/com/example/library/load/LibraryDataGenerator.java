@@ -0,0 +1,125 @@
+package com.example.library.load;
+
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.LoanTransition;
+import com.example.library.domain.User;
+import com.example.library.repository.LoanCounterRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.services.BookService;
+import com.example.library.services.RecommendationService;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+public class LibraryDataGenerator {
+
+    private static final int BATCH = 1_000;
+
+    private final Settings settings;
+    private final Random random;
+    private final ZipfSampler categories;
+    private final ZipfSampler popularBooks;
+    private final ZipfSampler activeUsers;
+
+    public LibraryDataGenerator(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+        this.categories = new ZipfSampler(settings.categories(), settings.skew());
+        this.popularBooks = new ZipfSampler(settings.books(), settings.skew());
+        this.activeUsers = new ZipfSampler(settings.users(), settings.readerSkew());
+    }
+
+    public record Settings(int users, int books, int loans, int categories, double skew, double readerSkew,
+                           double activeShare, long seed) {
+
+        public static Settings of(int users, int books, int loans) {
+            return new Settings(users, books, loans, Math.max(1, books / 100), 1.0, 1.0, 0.05, 42);
+        }
+
+        public Settings withReaderSkew(double readerSkew) {
+            return new Settings(users, books, loans, categories, skew, readerSkew, activeShare, seed);
+        }
+    }
+
+    public record Dataset(List<User> users, List<Book> books, int loans) {
+    }
+
+    public List<User> users() {
+        List<User> users = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail("user" + i + "-" + settings.seed() + "@library.com");
+            user.setPhone("(44) 9%04d-%04d".formatted(i / 10_000 % 10_000, i % 10_000));
+            user.setCreatedAt(LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3_000)));
+            users.add(user);
+        }
+        return users;
+    }
+
+    // Category sizes follow a Zipf law, so a handful of categories hold most of the catalogue.
+    public List<Book> books() {
+        List<Book> books = new ArrayList<>(settings.books());
+        for (int i = 0; i < settings.books(); i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setAuthor("Author " + random.nextInt(Math.max(1, settings.books() / 10)));
+            book.setIsbn("978%010d".formatted(settings.seed() % 1_000 * 10_000_000 + i));
+            book.setCategory("Category " + categories.next(random));
+            book.setPublishDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25_000)));
+            books.add(book);
+        }
+        return books;
+    }
+
+    // Borrowed books follow the catalogue skew and, by default, readers follow the same skew, so the most
+    // active readers hold a large share of the history.
+    public List<Loan> loans(List<User> users, List<Book> books) {
+        List<Loan> loans = new ArrayList<>(settings.loans());
+        for (int i = 0; i < settings.loans(); i++) {
+            Loan loan = new Loan();
+            boolean active = random.nextDouble() < settings.activeShare();
+            loan.setStatus(active ? LoanStatus.ACTIVE : LoanStatus.COMPLETED);
+            loan.setLoanDate(LocalDate.now().minusDays(active ? random.nextInt(30) : 30 + random.nextInt(700)));
+            loan.setUser(users.get(activeUsers.next(random)));
+            loan.setBook(books.get(popularBooks.next(random)));
+            loans.add(loan);
+        }
+        return loans;
+    }
+
+    public Dataset populate(ApplicationContext context) {
+        List<User> users = context.getBean(UserRepository.class).saveAll(users());
+        List<Book> books = books();
+        BookService bookService = context.getBean(BookService.class);
+        for (int from = 0; from < books.size(); from += BATCH) {
+            bookService.createBooks(books.subList(from, Math.min(from + BATCH, books.size())));
+        }
+        LoanRepository loanRepository = context.getBean(LoanRepository.class);
+        LoanCounterRepository counters = context.getBean(LoanCounterRepository.class);
+        List<Loan> loans = loans(users, books);
+        int inserted = 0;
+        for (int from = 0; from < loans.size(); from += BATCH) {
+            List<Loan> batch = loans.subList(from, Math.min(from + BATCH, loans.size()));
+            List<Optional<Long>> ids = loanRepository.insertAllIfAvailable(batch);
+            List<LoanTransition> transitions = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                if (ids.get(i).isPresent()) {
+                    Loan loan = batch.get(i);
+                    transitions.add(new LoanTransition(loan.getUser().getId(), loan.getBook().getId(), null, loan.getStatus()));
+                }
+            }
+            counters.record(transitions);
+            inserted += transitions.size();
+        }
+        context.getBean(RecommendationService.class).rebuildIndex();
+        return new Dataset(users, books, inserted);
+    }
+}
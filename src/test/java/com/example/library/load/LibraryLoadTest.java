@@ -0,0 +1,74 @@
+package com.example.library.load;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class LibraryLoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 5_000);
+    private static final int BOOKS = Integer.getInteger("load.books", 20_000);
+    private static final int LOANS = Integer.getInteger("load.loans", 100_000);
+    private static final double READER_SKEW = Double.parseDouble(System.getProperty("load.reader-skew", "1.0"));
+    private static final int RPS = Integer.getInteger("load.rps", 100);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 30));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    public void testEndpointsSustainTargetRate() {
+        LibraryDataGenerator generator = new LibraryDataGenerator(LibraryDataGenerator.Settings.of(USERS, BOOKS, LOANS)
+                .withReaderSkew(READER_SKEW));
+        LibraryDataGenerator.Dataset data = generator.populate(context);
+        ZipfSampler popularBooks = new ZipfSampler(data.books().size(), 1.0);
+        ZipfSampler activeUsers = new ZipfSampler(data.users().size(), READER_SKEW);
+        LoadHarness harness = new LoadHarness(URI.create("http://localhost:" + port));
+        harness.endpoint("GET /books/", 25, random -> HttpRequest.newBuilder(harness.uri(
+                        "/books/?limit=20&after=" + bookId(data, random.nextInt(data.books().size())))))
+                .endpoint("GET /books/{id}", 20, random -> HttpRequest.newBuilder(harness.uri(
+                        "/books/" + bookId(data, popularBooks.next(random)))))
+                .endpoint("GET /users/{id}", 10, random -> HttpRequest.newBuilder(harness.uri(
+                        "/users/" + userId(data, activeUsers.next(random)))))
+                .endpoint("GET /loans/", 10, random -> HttpRequest.newBuilder(harness.uri(
+                        "/loans/?limit=20&after=" + random.nextInt(data.loans()))))
+                .endpoint("GET /users/recommend", 25, random -> HttpRequest.newBuilder(harness.uri(
+                        "/users/recommend/" + userId(data, activeUsers.next(random)) + "?limit=10")))
+                .endpoint("POST /loans/", 10, random -> HttpRequest.newBuilder(harness.uri("/loans/"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("""
+                                {"status": "ACTIVE", "loanDate": "10-09-2024", "user": {"id": %d}, "book": {"id": %d}}
+                                """.formatted(userId(data, activeUsers.next(random)),
+                                bookId(data, popularBooks.next(random))))));
+
+        harness.run(RPS, Duration.ofSeconds(5), 1);
+        LoadReport report = harness.run(RPS, DURATION, 2);
+        System.out.println(report);
+
+        Assertions.assertEquals(0, report.errors(), report.toString());
+        Assertions.assertTrue(report.throughput() >= RPS * 0.9, report.toString());
+    }
+
+    private static long bookId(LibraryDataGenerator.Dataset data, int index) {
+        return data.books().get(index).getId();
+    }
+
+    private static long userId(LibraryDataGenerator.Dataset data, int index) {
+        return data.users().get(index).getId();
+    }
+}
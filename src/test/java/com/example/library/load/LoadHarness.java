@@ -0,0 +1,83 @@
+package com.example.library.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+public class LoadHarness {
+
+    private final URI baseUri;
+    private final HttpClient client;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadHarness(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public record Endpoint(String name, int weight, Function<Random, HttpRequest.Builder> request) {
+    }
+
+    public LoadHarness endpoint(String name, int weight, Function<Random, HttpRequest.Builder> request) {
+        endpoints.add(new Endpoint(name, weight, request));
+        totalWeight += weight;
+        return this;
+    }
+
+    public URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    // Open model: requests are issued on a fixed schedule whatever the response times, and latency is measured
+    // from the scheduled start, so a stalled server shows up in the percentiles instead of lowering the load.
+    public LoadReport run(int requestsPerSecond, Duration duration, long seed) {
+        Random random = new Random(seed);
+        long interval = 1_000_000_000L / requestsPerSecond;
+        long total = duration.toNanos() / interval;
+        Map<String, LoadReport.Recorder> recorders = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new LoadReport.Recorder(endpoint.name())));
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * interval;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = pick(random);
+            LoadReport.Recorder recorder = recorders.get(endpoint.name());
+            HttpRequest request = endpoint.request().apply(random).timeout(Duration.ofSeconds(30)).build();
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> recorder.record(System.nanoTime() - scheduled,
+                            error == null ? response.statusCode() : -1)));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        long elapsed = System.nanoTime() - start;
+        return new LoadReport(requestsPerSecond, Duration.ofNanos(elapsed),
+                recorders.values().stream().map(LoadReport.Recorder::summarize).toList());
+    }
+
+    private Endpoint pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            value -= endpoint.weight();
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("No endpoint registered");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+public record LoadReport(int targetRps, Duration elapsed, List<EndpointStats> endpoints) {
+
+    public record EndpointStats(String name, int requests, int errors, double p50Millis, double p90Millis,
+                                double p99Millis, double maxMillis) {
+    }
+
+    public long requests() {
+        return endpoints.stream().mapToLong(EndpointStats::requests).sum();
+    }
+
+    public long errors() {
+        return endpoints.stream().mapToLong(EndpointStats::errors).sum();
+    }
+
+    public double throughput() {
+        return requests() / (elapsed.toNanos() / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("target %d req/s, achieved %.1f req/s, %d requests, %d errors in %.1fs%n"
+                .formatted(targetRps, throughput(), requests(), errors(), elapsed.toMillis() / 1000.0));
+        report.append("%-20s %8s %7s %9s %9s %9s %9s%n".formatted("endpoint", "requests", "errors", "p50 ms", "p90 ms",
+                "p99 ms", "max ms"));
+        for (EndpointStats stats : endpoints) {
+            report.append("%-20s %8d %7d %9.2f %9.2f %9.2f %9.2f%n".formatted(stats.name(), stats.requests(),
+                    stats.errors(), stats.p50Millis(), stats.p90Millis(), stats.p99Millis(), stats.maxMillis()));
+        }
+        return report.toString();
+    }
+
+    static class Recorder {
+
+        private final String name;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Recorder(String name) {
+            this.name = name;
+        }
+
+        // Server errors and transport failures count as errors; 4xx answers such as 409 are valid outcomes.
+        synchronized void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status < 0 || status >= 500) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointStats summarize() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new EndpointStats(name, count, errors, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                    percentile(sorted, 0.99), count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
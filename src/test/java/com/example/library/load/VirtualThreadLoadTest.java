@@ -0,0 +1,179 @@
+package com.example.library.load;
+
+import com.example.library.services.google.GoogleBooksStub;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Serves every request on a virtual thread with a Tomcat pool far smaller than the
+// number of concurrent requests: the slow Google Books calls block their request
+// threads, and the database requests queue for a five-connection pool. JFR reports
+// any virtual thread that parks while pinned to its carrier.
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=" + VirtualThreadLoadTest.PLATFORM_THREADS,
+        "spring.datasource.hikari.maximum-pool-size=5",
+        "google.books.client.max-connections=1000",
+        "google.books.client.pending-acquire-max-count=1000",
+        "google.books.client.response-timeout=10s",
+        "google.books.resilience.max-concurrent-calls=1000"})
+@ActiveProfiles("test")
+public class VirtualThreadLoadTest {
+
+    static final int PLATFORM_THREADS = 20;
+
+    private static final int REQUESTS = Integer.getInteger("load.concurrency", 400);
+    private static final Duration DELAY = Duration.ofSeconds(1);
+
+    private static GoogleBooksStub stub;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @DynamicPropertySource
+    static void googleBooks(DynamicPropertyRegistry registry) throws IOException {
+        stub = new GoogleBooksStub();
+        stub.respondByDefault(GoogleBooksStub.Response.ok(DELAY));
+        registry.add("google.books.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    public void testServesMoreConcurrentRequestsThanPlatformThreadsWithoutPinning() throws Exception {
+        LibraryDataGenerator.Dataset data = new LibraryDataGenerator(LibraryDataGenerator.Settings.of(500, 2_000, 5_000))
+                .populate(context);
+        Queue<String> pinned = new ConcurrentLinkedQueue<>();
+        CountDownLatch flushed = new CountDownLatch(2);
+
+        List<HttpResponse<String>> responses;
+        long elapsed;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(10)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(describe(event)));
+            recording.startAsync();
+            pinOnce();
+
+            long start = System.nanoTime();
+            responses = send(requests(data));
+            elapsed = System.nanoTime() - start;
+
+            recording.onFlush(flushed::countDown);
+            flushed.await(10, TimeUnit.SECONDS);
+        }
+
+        List<String> control = pinned.stream().filter(event -> event.contains(VirtualThreadLoadTest.class.getName())).toList();
+        pinned.removeAll(control);
+        long serialized = DELAY.toNanos() * REQUESTS / PLATFORM_THREADS;
+        System.out.printf("%d requests, %d Google Books calls in flight at peak, %d ms (%d ms if serialized), %d pinned%n",
+                responses.size(), stub.maxConcurrentCalls(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                TimeUnit.NANOSECONDS.toMillis(serialized), pinned.size());
+
+        Assertions.assertEquals(1, control.size(), "JFR did not report the deliberate pinning");
+        Assertions.assertEquals(List.of(), responses.stream()
+                .filter(response -> response.statusCode() >= 300)
+                .map(response -> response.statusCode() + " " + response.uri())
+                .toList());
+        Assertions.assertTrue(stub.maxConcurrentCalls() > PLATFORM_THREADS,
+                "Google Books calls in flight peaked at " + stub.maxConcurrentCalls());
+        Assertions.assertTrue(elapsed < serialized, "Took " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        Assertions.assertEquals("", String.join("\n\n", pinned));
+    }
+
+    // One slow Google Books query per request, plus reads and bulk imports that
+    // contend for the connection pool and the book id allocator.
+    private List<HttpRequest> requests(LibraryDataGenerator.Dataset data) {
+        Random random = new Random(42);
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(HttpRequest.newBuilder(uri("/books/api/?title=virtual-" + i)).build());
+            switch (i % 4) {
+                case 0 -> requests.add(HttpRequest.newBuilder(uri(
+                        "/users/" + data.users().get(random.nextInt(data.users().size())).getId())).build());
+                case 1 -> requests.add(HttpRequest.newBuilder(uri(
+                        "/loans/?limit=20&view=full&after=" + random.nextInt(data.loans()))).build());
+                case 2 -> requests.add(HttpRequest.newBuilder(uri(
+                        "/books/?limit=20&after=" + data.books().get(random.nextInt(data.books().size())).getId())).build());
+                default -> requests.add(HttpRequest.newBuilder(uri("/books/import"))
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString("""
+                                {"title": "Virtual %d", "author": "Author", "isbn": "virtual-%d", "category": "Drama", "publishDate": "10-09-2020"}
+                                """.formatted(i, i)))
+                        .build());
+            }
+        }
+        return requests;
+    }
+
+    private static List<HttpResponse<String>> send(List<HttpRequest> requests) {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<CompletableFuture<HttpResponse<String>>> futures = requests.stream()
+                .map(request -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Control for the JFR recording: a virtual thread that sleeps while holding a monitor
+    // stays pinned to its carrier and must be reported.
+    private static void pinOnce() throws Exception {
+        ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        Object monitor = new Object();
+        executor.submit(() -> {
+            synchronized (monitor) {
+                Thread.sleep(50);
+            }
+            return null;
+        }).get();
+        executor.shutdown();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String describe(RecordedEvent event) {
+        return "Pinned for " + event.getDuration().toMillis() + " ms" + (event.getStackTrace() == null ? ""
+                : event.getStackTrace().getFrames().stream()
+                .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining()));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.library.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// Runs with -Pbenchmark. Loads 1M loans, then times the hot repository queries and
+// checks their plans before and after applying the V5 index migration. Defaults to
+// H2 in PostgreSQL mode; -Dbenchmark.url=jdbc:postgresql://... (with
+// -Dbenchmark.user and -Dbenchmark.password) runs the migration verbatim on a real
+// PostgreSQL, where the partial and covering indexes exist as written.
+@Tag("benchmark")
+public class IndexBenchmarkTest {
+
+    private static final String URL = System.getProperty("benchmark.url", "jdbc:h2:mem:benchmark;MODE=PostgreSQL");
+    private static final boolean POSTGRES = URL.startsWith("jdbc:postgresql:");
+
+    private static final int USERS = 10_000;
+    private static final int BOOKS = 100_000;
+    private static final int LOANS = 1_000_000;
+    private static final int CATEGORIES = 500;
+    private static final int RUNS = 25;
+
+    // The index each query is expected to use once the migrations have run.
+    private static final Map<String, String> INDEXES = Map.of(
+            "findActiveLoanByBook", "loans_active_book_idx",
+            "findByUser", "loans_user_id_idx",
+            "findByCategoryIn", "books_category_idx",
+            "findExistingIsbns", "books_isbn_idx");
+
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        // H2 has no partial indexes: the lookup goes through the generated column that
+        // stands in for loans_active_book_idx, as in db/h2/constraints.sql.
+        QUERIES.put("findActiveLoanByBook", POSTGRES
+                ? "SELECT * FROM loans WHERE status = 1 AND book_id = ?"
+                : "SELECT * FROM loans WHERE active_book_id = ?");
+        QUERIES.put("findByUser", "SELECT * FROM loans loan JOIN books book ON book.id = loan.book_id WHERE loan.user_id = ?");
+        QUERIES.put("findByCategoryIn", "SELECT * FROM books WHERE category IN (?, 'missing')");
+        QUERIES.put("findExistingIsbns", "SELECT isbn FROM books WHERE isbn IN (?, 'missing')");
+    }
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void loadData() throws SQLException {
+        connection = DriverManager.getConnection(URL, System.getProperty("benchmark.user", "sa"),
+                System.getProperty("benchmark.password", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS loans");
+            statement.execute("DROP TABLE IF EXISTS books");
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name TEXT NOT NULL, email TEXT NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE books (id BIGINT PRIMARY KEY, title TEXT NOT NULL, isbn TEXT NOT NULL, category TEXT NOT NULL)");
+            // No foreign keys: H2 would index them implicitly, which PostgreSQL does not.
+            statement.execute("CREATE TABLE loans (id BIGINT PRIMARY KEY, status SMALLINT NOT NULL, loan_date DATE NOT NULL, "
+                    + "return_date DATE, user_id BIGINT, book_id BIGINT)");
+            statement.execute("INSERT INTO users SELECT x, 'user ' || x, 'user' || x || '@mail.com' FROM " + range(USERS));
+            statement.execute("INSERT INTO books SELECT x, 'book ' || x, 'isbn-' || x, 'category ' || MOD(x, " + CATEGORIES + ") "
+                    + "FROM " + range(BOOKS));
+            // Every tenth loan is active, each on a different book.
+            statement.execute("INSERT INTO loans SELECT x, CASE WHEN MOD(x, 10) = 0 THEN 1 ELSE 4 END, "
+                    + "DATE '2020-01-01' + MOD(x, 1000), NULL, MOD(x * 7, " + USERS + ") + 1, "
+                    + "CASE WHEN MOD(x, 10) = 0 THEN x / 10 ELSE MOD(x * 13, " + BOOKS + ") + 1 END "
+                    + "FROM " + range(LOANS));
+            // The active-book index predates V5 (V4, rebuilt by V8).
+            if (POSTGRES) {
+                statement.execute("CREATE UNIQUE INDEX loans_active_book_idx ON loans (book_id) WHERE status = 1");
+                statement.execute("ANALYZE");
+            } else {
+                statement.execute("ALTER TABLE loans ADD COLUMN active_book_id BIGINT "
+                        + "GENERATED ALWAYS AS (CASE WHEN status = 1 THEN book_id END)");
+                statement.execute("CREATE UNIQUE INDEX loans_active_book_idx ON loans (active_book_id)");
+            }
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testIndexesImproveHotQueries() throws Exception {
+        Map<String, Double> before = new LinkedHashMap<>();
+        for (String name : QUERIES.keySet()) {
+            String plan = plan(name);
+            if (name.equals("findActiveLoanByBook")) {
+                Assertions.assertTrue(plan.contains(INDEXES.get(name)), name + " does not use the partial index: " + plan);
+            } else {
+                Assertions.assertFalse(plan.contains("_idx"), name + " already uses an index: " + plan);
+            }
+            before.put(name, medianMillis(name));
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String index : migration("db/migration/V5__create_indexes_hot_paths.sql")) {
+                statement.execute(index);
+            }
+            if (POSTGRES) {
+                statement.execute("VACUUM ANALYZE loans");
+                statement.execute("ANALYZE books");
+            }
+        }
+
+        System.out.printf("%-22s %12s %12s%n", "query", "before (ms)", "after (ms)");
+        for (String name : QUERIES.keySet()) {
+            String plan = plan(name);
+            double after = medianMillis(name);
+            System.out.printf("%-22s %12.3f %12.3f%n", name, before.get(name), after);
+            System.out.println(plan);
+            Assertions.assertTrue(plan.contains(INDEXES.get(name)), name + " does not use " + INDEXES.get(name) + ": " + plan);
+            if (!name.equals("findActiveLoanByBook")) {
+                Assertions.assertTrue(after < before.get(name), name + " did not get faster");
+            }
+        }
+    }
+
+    private static String range(int size) {
+        return POSTGRES ? "generate_series(1, " + size + ") AS range(x)" : "SYSTEM_RANGE(1, " + size + ")";
+    }
+
+    private String plan(String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + QUERIES.get(name))) {
+            bind(statement, name, 1);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    plan.append(result.getString(1).toLowerCase(Locale.ROOT)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private double medianMillis(String name) throws SQLException {
+        Random random = new Random(42);
+        double[] timings = new double[RUNS];
+        try (PreparedStatement statement = connection.prepareStatement(QUERIES.get(name))) {
+            for (int run = 0; run < RUNS; run++) {
+                bind(statement, name, random.nextInt(USERS) + 1);
+                long start = System.nanoTime();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        result.getObject(1);
+                    }
+                }
+                timings[run] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+        }
+        Arrays.sort(timings);
+        return timings[RUNS / 2];
+    }
+
+    private void bind(PreparedStatement statement, String name, int value) throws SQLException {
+        switch (name) {
+            case "findByCategoryIn" -> statement.setString(1, "category " + value % CATEGORIES);
+            case "findExistingIsbns" -> statement.setString(1, "isbn-" + value);
+            default -> statement.setLong(1, value);
+        }
+    }
+
+    // PostgreSQL runs the migration as written, each CONCURRENTLY statement in its own
+    // implicit transaction. H2 has neither CONCURRENTLY nor INCLUDE, so the keyword is
+    // dropped and the included columns become trailing key columns.
+    private String[] migration(String location) throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(location)) {
+            String sql = new String(input.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+            if (!POSTGRES) {
+                sql = sql.replace(" CONCURRENTLY", "").replace(") INCLUDE (", ", ");
+            }
+            return Arrays.stream(sql.split(";")).map(String::strip).filter(statement -> !statement.isEmpty())
+                    .toArray(String[]::new);
+        }
+    }
+}
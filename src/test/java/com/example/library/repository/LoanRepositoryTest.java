@@ -0,0 +1,132 @@
+package com.example.library.repository;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanSummary;
+import com.example.library.domain.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class LoanRepositoryTest {
+
+    @Autowired
+    private LoanRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testSummaryListingIssuesOneStatement() {
+        persistLoans(3);
+        Assertions.assertEquals(1, countStatements(() -> repository.findSummaries(0L, Limit.of(100))));
+
+        persistLoans(30);
+        Assertions.assertEquals(1, countStatements(() -> {
+            List<LoanSummary> loans = repository.findSummaries(0L, Limit.of(100));
+            Assertions.assertEquals(33, loans.size());
+            Assertions.assertNotNull(loans.get(0).userId());
+            Assertions.assertNotNull(loans.get(0).bookId());
+        }));
+    }
+
+    @Test
+    public void testFullListingIssuesOneStatement() {
+        persistLoans(3);
+        Assertions.assertEquals(1, countStatements(() -> repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100))));
+
+        persistLoans(30);
+        Assertions.assertEquals(1, countStatements(() -> {
+            List<Loan> loans = repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100));
+            Assertions.assertEquals(33, loans.size());
+            loans.forEach(loan -> {
+                Assertions.assertNotNull(loan.getUser().getName());
+                Assertions.assertNotNull(loan.getBook().getTitle());
+            });
+        }));
+    }
+
+    @Test
+    public void testUserHistoryFetchesBooks() {
+        User user = persistLoans(10).get(0).getUser();
+
+        Assertions.assertEquals(1, countStatements(() -> repository.findByUser(user)
+                .forEach(loan -> Assertions.assertNotNull(loan.getBook().getCategory()))));
+    }
+
+    @Test
+    public void testPersistAllocatesIdsInBlocks() {
+        statistics.clear();
+        List<Loan> loans = persistLoans(100);
+
+        // One sequence call per block of 50 ids (1 user, 2 for books, 2 for loans) and one batched insert per table.
+        Assertions.assertEquals(8, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(99, loans.get(99).getId() - loans.get(0).getId());
+    }
+
+    @Test
+    public void testEqualityIgnoresLazyAssociations() {
+        Long id = persistLoans(1).get(0).getId();
+        Loan loan = repository.findById(id).orElseThrow();
+        entityManager.clear();
+
+        Loan sameLoan = new Loan();
+        sameLoan.setId(id);
+        Assertions.assertEquals(sameLoan, loan);
+        Assertions.assertEquals(sameLoan.hashCode(), loan.hashCode());
+        Assertions.assertFalse(Hibernate.isInitialized(loan.getBook()));
+        Assertions.assertFalse(Hibernate.isInitialized(loan.getUser()));
+    }
+
+    private List<Loan> persistLoans(int count) {
+        User user = TestConfig.newUser();
+        entityManager.persist(user);
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = TestConfig.newBook();
+            entityManager.persist(book);
+            Loan loan = TestConfig.loan();
+            loan.setId(null);
+            loan.setUser(user);
+            loan.setBook(book);
+            loans.add(entityManager.persist(loan));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return loans;
+    }
+
+    private long countStatements(Runnable query) {
+        entityManager.clear();
+        statistics.clear();
+        query.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
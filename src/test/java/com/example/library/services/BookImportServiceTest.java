@@ -0,0 +1,73 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.repository.BookRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    public void testImportCsv() throws Exception {
+        String csv = """
+                title,author,isbn,category,publishDate\r
+                "Dune, Part One",Frank Herbert,9780441013593,Sci-Fi,01-08-1965\r
+                "The ""Hobbit\""",J. R. R. Tolkien,9780547928227,Fantasy,21-09-1937\r
+                ,Nobody,123,Misc,01-01-2000\r
+                Broken,Nobody,123,Misc,2000-01-01\r
+                """;
+        long before = bookRepository.count();
+
+        ImportReport report = importService.importCsv(input(csv));
+
+        Assertions.assertEquals(2, report.imported());
+        Assertions.assertEquals(2, report.rejected());
+        Assertions.assertEquals(List.of(3L, 4L), report.rejectedRows().stream().map(ImportReport.RejectedRow::row).toList());
+        Assertions.assertEquals(before + 2, bookRepository.count());
+        Assertions.assertTrue(bookRepository.findAll().stream().anyMatch(book -> book.getTitle().equals("The \"Hobbit\"")));
+    }
+
+    @Test
+    public void testImportNdjsonSharesSequenceWithHibernate() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < BookImportService.BATCH_SIZE + 20; i++) {
+            ndjson.append("""
+                    {"title": "Book %d", "author": "Author", "isbn": "isbn-%d", "category": "Drama", "publishDate": "10-09-2020"}
+                    """.formatted(i, i));
+        }
+        ndjson.append("not json\n");
+
+        ImportReport report = importService.importNdjson(input(ndjson.toString()));
+        Book saved = TestConfig.book();
+        saved.setId(null);
+        saved = bookRepository.save(saved);
+
+        Assertions.assertEquals(BookImportService.BATCH_SIZE + 20, report.imported());
+        Assertions.assertEquals(1, report.rejected());
+        Set<Long> ids = new HashSet<>();
+        bookRepository.findAll().forEach(book -> Assertions.assertTrue(ids.add(book.getId())));
+        Assertions.assertTrue(ids.contains(saved.getId()));
+    }
+
+    private ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.library.services;
+
+import com.example.library.repository.BookRepository;
+import com.example.library.services.enrichment.EnrichmentJob;
+import com.example.library.services.enrichment.EnrichmentProgress;
+import com.example.library.services.enrichment.EnrichmentRequest;
+import com.example.library.services.google.GoogleBooksStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EnrichmentServiceTest {
+
+    private static GoogleBooksStub stub;
+
+    @Autowired
+    private EnrichmentService enrichmentService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @DynamicPropertySource
+    static void googleBooks(DynamicPropertyRegistry registry) throws IOException {
+        stub = new GoogleBooksStub();
+        registry.add("google.books.url", stub::url);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    public void testImportsNewBooksOnce() throws Exception {
+        EnrichmentProgress progress = await(enrichmentService.startEnrichment(
+                new EnrichmentRequest(List.of("dune", "frank herbert"), List.of("9780441013593"))));
+
+        Assertions.assertEquals(EnrichmentJob.Status.COMPLETED, progress.status());
+        Assertions.assertEquals(3, progress.queries());
+        Assertions.assertEquals(3, progress.queriesDone());
+        Assertions.assertEquals(6, progress.candidates());
+        Assertions.assertEquals(3, progress.invalid());
+        Assertions.assertEquals(1, progress.imported());
+        Assertions.assertEquals(2, progress.duplicates());
+        Assertions.assertEquals(1, bookRepository.findExistingIsbns(List.of("9780441013593")).size());
+
+        progress = await(enrichmentService.startEnrichment(new EnrichmentRequest(List.of("dune"), null)));
+
+        Assertions.assertEquals(0, progress.imported());
+        Assertions.assertEquals(1, progress.duplicates());
+        Assertions.assertEquals(1, bookRepository.findExistingIsbns(List.of("9780441013593")).size());
+    }
+
+    @Test
+    public void testReportsFailedQueries() throws Exception {
+        stub.respond(GoogleBooksStub.Response.status(404));
+
+        EnrichmentProgress progress = await(enrichmentService.startEnrichment(
+                new EnrichmentRequest(List.of("missing"), null)));
+
+        Assertions.assertEquals(EnrichmentJob.Status.COMPLETED, progress.status());
+        Assertions.assertEquals(1, progress.failedQueries());
+        Assertions.assertEquals(0, progress.imported());
+    }
+
+    @Test
+    public void testSkipsNullAndBlankQueries() throws Exception {
+        EnrichmentProgress progress = await(enrichmentService.startEnrichment(
+                new EnrichmentRequest(Arrays.asList(null, " "), Arrays.asList("", null))));
+
+        Assertions.assertEquals(EnrichmentJob.Status.COMPLETED, progress.status());
+        Assertions.assertEquals(0, progress.queries());
+        Assertions.assertEquals(0, progress.imported());
+    }
+
+    @Test
+    public void testKeepsRunningJobsWhileOthersFinish() throws Exception {
+        stub.respond(GoogleBooksStub.Response.ok(Duration.ofSeconds(1)));
+        EnrichmentProgress running = enrichmentService.startEnrichment(
+                new EnrichmentRequest(List.of("slow enrichment"), null));
+
+        for (int i = 0; i < 150; i++) {
+            enrichmentService.startEnrichment(new EnrichmentRequest(List.of(), null));
+        }
+
+        Assertions.assertEquals(EnrichmentJob.Status.RUNNING,
+                enrichmentService.getProgress(running.id()).orElseThrow().status());
+        Assertions.assertEquals(EnrichmentJob.Status.COMPLETED, await(running).status());
+    }
+
+    private EnrichmentProgress await(EnrichmentProgress started) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            EnrichmentProgress progress = enrichmentService.getProgress(started.id()).orElseThrow();
+            if (progress.status() != EnrichmentJob.Status.RUNNING) {
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+        Assertions.fail("Enrichment job did not finish");
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanArchiveRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = "library.archive.batch-size=2")
+@ActiveProfiles("test")
+public class LoanArchiveServiceTest {
+
+    @Autowired
+    private LoanArchiveService archiveService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testArchivesFinishedLoansOlderThanCutoffInBatches() {
+        User user = userRepository.save(TestConfig.newUser());
+        LocalDate cutoff = LocalDate.of(2024, 1, 1);
+        Loan oldCompleted = newLoan(user, "9780000019001", LoanStatus.COMPLETED, cutoff.minusMonths(3));
+        Loan oldCancelled = newLoan(user, "9780000019002", LoanStatus.CANCELLED, cutoff.minusMonths(2));
+        Loan oldCompletedToo = newLoan(user, "9780000019003", LoanStatus.COMPLETED, cutoff.minusDays(1));
+        Loan oldActive = newLoan(user, "9780000019004", LoanStatus.ACTIVE, cutoff.minusMonths(4));
+        Loan recentCompleted = newLoan(user, "9780000019005", LoanStatus.COMPLETED, cutoff);
+        Loan recentlyReturned = newLoan(user, "9780000019006", LoanStatus.COMPLETED, cutoff.minusMonths(5));
+        recentlyReturned.setReturnDate(cutoff);
+        loanRepository.save(recentlyReturned);
+
+        Assertions.assertEquals(3, archiveService.archiveLoansBefore(cutoff));
+
+        List<Long> remaining = loanRepository.findByUser(user).stream().map(Loan::getId).sorted().toList();
+        Assertions.assertEquals(List.of(oldActive.getId(), recentCompleted.getId(), recentlyReturned.getId()).stream()
+                .sorted().toList(), remaining);
+        for (Loan archived : List.of(oldCompleted, oldCancelled, oldCompletedToo)) {
+            Assertions.assertTrue(archiveRepository.findById(archived.getId())
+                    .filter(loan -> loan.getStatus() == archived.getStatus())
+                    .filter(loan -> loan.getBookId().equals(archived.getBook().getId()))
+                    .filter(loan -> loan.getArchivedAt() != null)
+                    .isPresent());
+        }
+        Assertions.assertEquals(0, archiveService.archiveLoansBefore(cutoff));
+    }
+
+    @Test
+    public void testRebuiltRecommendationsKeepArchivedHistory() {
+        User user = userRepository.save(TestConfig.newUser());
+        Loan archived = newLoan(user, "9780000019011", LoanStatus.COMPLETED, LocalDate.of(2023, 1, 1));
+        Loan active = newLoan(user, "9780000019012", LoanStatus.ACTIVE, LocalDate.of(2023, 1, 1));
+
+        Assertions.assertEquals(1, archiveService.archiveLoansBefore(LocalDate.of(2023, 6, 1)));
+        recommendationService.rebuildIndex();
+
+        long[] borrowed = recommendationService.borrowedBooks(user.getId());
+        Assertions.assertTrue(Arrays.stream(borrowed).anyMatch(id -> id == archived.getBook().getId()));
+        Assertions.assertTrue(Arrays.stream(borrowed).anyMatch(id -> id == active.getBook().getId()));
+    }
+
+    @Test
+    public void testSkipsLockedRowUntilNextRun() throws Exception {
+        User user = userRepository.save(TestConfig.newUser());
+        LocalDate cutoff = LocalDate.of(2021, 1, 1);
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            loans.add(newLoan(user, "978000001903" + i, LoanStatus.COMPLETED, cutoff.minusDays(10 - i)));
+        }
+        Loan locked = loans.get(1);
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch archived = new CountDownLatch(1);
+
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM loans WHERE id = ? FOR UPDATE", Long.class, locked.getId());
+            lockHeld.countDown();
+            try {
+                archived.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        Assertions.assertTrue(lockHeld.await(10, TimeUnit.SECONDS));
+        try {
+            archiveService.archiveLoansBefore(cutoff);
+        } finally {
+            archived.countDown();
+        }
+        holder.get(10, TimeUnit.SECONDS);
+
+        for (Loan loan : loans) {
+            Assertions.assertEquals(loan != locked, archiveRepository.existsById(loan.getId()));
+        }
+        archiveService.archiveLoansBefore(cutoff);
+        Assertions.assertTrue(archiveRepository.existsById(locked.getId()));
+    }
+
+    @Test
+    public void testShortBatchDoesNotEndTheRun() {
+        User user = userRepository.save(TestConfig.newUser());
+        LocalDate cutoff = LocalDate.of(2020, 1, 1);
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            loans.add(newLoan(user, "978000001904" + i, LoanStatus.COMPLETED, cutoff.minusDays(10 - i)));
+        }
+        // The first batch comes back short, as when locked rows are skipped.
+        LoanArchiveRepository repository = mock(LoanArchiveRepository.class, AdditionalAnswers.delegatesTo(archiveRepository));
+        doAnswer(invocation -> archiveRepository.archiveBatch(cutoff, 1))
+                .doAnswer(invocation -> archiveRepository.archiveBatch(cutoff, invocation.getArgument(1)))
+                .when(repository).archiveBatch(any(), anyInt());
+        Object target = AopTestUtils.getTargetObject(archiveService);
+        ReflectionTestUtils.setField(target, "repository", repository);
+        ReflectionTestUtils.setField(target, "maxBatches", 2);
+        try {
+            Assertions.assertEquals(3, archiveService.archiveLoansBefore(cutoff));
+            Assertions.assertEquals(2, archiveService.archiveLoansBefore(cutoff));
+        } finally {
+            ReflectionTestUtils.setField(target, "repository", archiveRepository);
+            ReflectionTestUtils.setField(target, "maxBatches", 1000);
+        }
+        for (Loan loan : loans) {
+            Assertions.assertTrue(archiveRepository.existsById(loan.getId()));
+        }
+    }
+
+    private Loan newLoan(User user, String isbn, LoanStatus status, LocalDate loanDate) {
+        Book book = TestConfig.newBook(isbn);
+        Loan loan = new Loan();
+        loan.setStatus(status);
+        loan.setLoanDate(loanDate);
+        loan.setUser(user);
+        loan.setBook(bookRepository.save(book));
+        return loanRepository.save(loan);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.BulkCheckout;
+import com.example.library.domain.BulkLoanResult;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.UserRepository;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs with the production settings (manual commits, Hikari and Hibernate tuning) on H2:
+// only the schema management stays as in the test profile, since the Flyway migrations
+// and ddl-auto=validate target PostgreSQL.
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@ActiveProfiles({"test", "prod"})
+public class PersistenceBatchingTest {
+
+    private static final BatchCounter COUNTER = new BatchCounter();
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(COUNTER).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class BatchCounter implements QueryExecutionListener {
+
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger batchedRows = new AtomicInteger();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (execInfo.isBatch()) {
+                batches.incrementAndGet();
+                batchedRows.addAndGet(execInfo.getBatchSize());
+            }
+        }
+
+        void reset() {
+            batches.set(0);
+            batchedRows.set(0);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        COUNTER.reset();
+    }
+
+    @Test
+    public void testBookServiceBulkInsertIsOneBatch() {
+        bookService.createBooks(books(120));
+
+        Assertions.assertEquals(1, COUNTER.batches.get());
+        Assertions.assertEquals(120, COUNTER.batchedRows.get());
+    }
+
+    @Test
+    public void testLoanServiceBulkCheckoutAndReturnAreBatched() {
+        User user = TestConfig.newUser("batching@gmail.com");
+        Long userId = userRepository.save(user).getId();
+        List<Long> bookIds = bookRepository.saveAll(books(10)).stream().map(Book::getId).toList();
+        COUNTER.reset();
+
+        List<BulkLoanResult> loans = loanService.createLoans(new BulkCheckout(userId, LocalDate.now(), null, bookIds))
+                .orElseThrow();
+        loanService.finishLoans(loans.stream().map(BulkLoanResult::loanId).toList());
+
+        // Each step is one batch of loan rows plus one batch of counter updates: 1 global, 1 user and 10 book
+        // counters on checkout, twice that on return since both the ACTIVE and COMPLETED counters move.
+        Assertions.assertEquals(4, COUNTER.batches.get());
+        Assertions.assertEquals(10 + 12 + 10 + 24, COUNTER.batchedRows.get());
+    }
+
+    @Test
+    public void testHibernateGroupsBulkSavesIntoBatches() {
+        transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books(120)));
+
+        // batch_size=50, so 120 inserts go out as 50 + 50 + 20.
+        Assertions.assertEquals(3, COUNTER.batches.get());
+        Assertions.assertEquals(120, COUNTER.batchedRows.get());
+    }
+
+    @Test
+    public void testRunsWithProductionConnectionSettings() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            Assertions.assertFalse(connection.getAutoCommit());
+        }
+    }
+
+    private List<Book> books(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            books.add(TestConfig.newBook());
+        }
+        return books;
+    }
+}
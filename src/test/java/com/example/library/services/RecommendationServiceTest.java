@@ -0,0 +1,100 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.services.recommendation.RecommendationStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecommendationServiceTest {
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    public void testLoanCreatedDuringRebuildIsCountedOnce() {
+        User reader = userRepository.save(TestConfig.newUser());
+        User borrower = userRepository.save(TestConfig.newUser());
+        Book first = newBook("9780000004001");
+        Book second = newBook("9780000004002");
+        Book third = newBook("9780000004003");
+        newLoan(reader, first);
+        newLoan(userRepository.save(TestConfig.newUser()), third);
+        newLoan(userRepository.save(TestConfig.newUser()), third);
+
+        AtomicReference<CheckoutResult> created = new AtomicReference<>();
+        BookRepository books = mock(BookRepository.class, AdditionalAnswers.delegatesTo(bookRepository));
+        doAnswer(invocation -> {
+            if (created.get() == null) {
+                Loan loan = new Loan();
+                loan.setUser(borrower);
+                loan.setBook(second);
+                loan.setLoanDate(LocalDate.now());
+                created.set(CompletableFuture.supplyAsync(() -> loanService.createLoan(loan)).join());
+            }
+            return bookRepository.streamCategories();
+        }).when(books).streamCategories();
+
+        Object target = AopTestUtils.getTargetObject(recommendationService);
+        ReflectionTestUtils.setField(target, "bookRepository", books);
+        try {
+            recommendationService.rebuildIndex();
+        } finally {
+            ReflectionTestUtils.setField(target, "bookRepository", bookRepository);
+        }
+
+        Assertions.assertEquals(CheckoutResult.Status.CREATED, created.get().status());
+        Assertions.assertEquals(List.of(third.getId(), second.getId()), recommendationService
+                .recommendBooks(reader, RecommendationStrategy.CATEGORY, 2).stream().map(Book::getId).toList());
+        Assertions.assertArrayEquals(new long[]{second.getId()}, recommendationService.borrowedBooks(borrower.getId()));
+    }
+
+    private Book newBook(String isbn) {
+        Book book = TestConfig.newBook(isbn);
+        book.setCategory("Rebuild");
+        return bookRepository.save(book);
+    }
+
+    private void newLoan(User user, Book book) {
+        Loan loan = new Loan();
+        loan.setStatus(LoanStatus.COMPLETED);
+        loan.setLoanDate(LocalDate.of(2024, 1, 1));
+        loan.setUser(user);
+        loan.setBook(book);
+        loanRepository.save(loan);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.config.CacheConfig;
+import com.example.library.config.ReplicaRoutingDataSource;
+import com.example.library.domain.Book;
+import com.example.library.domain.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "library.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;INIT=RUNSCRIPT FROM 'classpath:db/h2/replica.sql'",
+        "library.datasource.replica.username=sa",
+        "library.datasource.replica.password=",
+        "library.datasource.replica.driver-class-name=org.h2.Driver",
+        "library.datasource.replica.max-lag=5s",
+        "library.datasource.replica.lag-check-interval=1h",
+        "library.datasource.replica.lag-query=SELECT CASE WHEN NOT EXISTS (SELECT 1 FROM replica_wal_receiver WHERE status = 'streaming') THEN NULL ELSE (SELECT seconds FROM replica_lag) END"
+})
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    // The scheduled check runs once at startup and then hourly: each test checks when it needs to.
+    @BeforeEach
+    public void setUp() {
+        routingDataSource.checkLag();
+    }
+
+    @Test
+    public void testWritesGoToPrimaryAndReadOnlyCallsToReplica() {
+        Book book = bookService.createBook(TestConfig.newBook("9780000018001"));
+
+        Assertions.assertEquals(1, countByIsbn(primaryDataSource, book.getIsbn()));
+        Assertions.assertEquals(0, countByIsbn(replicaDataSource, book.getIsbn()));
+
+        List<Book> books = bookService.getBooks(0L, 100);
+        Assertions.assertTrue(books.stream().anyMatch(found -> "Replica Only".equals(found.getTitle())));
+        Assertions.assertTrue(books.stream().noneMatch(found -> book.getIsbn().equals(found.getIsbn())));
+    }
+
+    @Test
+    public void testStaleReplicaFallsBackToPrimary() {
+        Book book = bookService.createBook(TestConfig.newBook("9780000018002"));
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("UPDATE replica_lag SET seconds = 60");
+        try {
+            routingDataSource.checkLag();
+            Assertions.assertFalse(routingDataSource.isReplicaFresh());
+            List<Book> books = bookService.getBooks(0L, 100);
+            Assertions.assertTrue(books.stream().anyMatch(found -> book.getIsbn().equals(found.getIsbn())));
+            Assertions.assertTrue(books.stream().noneMatch(found -> "Replica Only".equals(found.getTitle())));
+        } finally {
+            replica.update("UPDATE replica_lag SET seconds = 0");
+        }
+        routingDataSource.checkLag();
+        Assertions.assertTrue(bookService.getBooks(0L, 100).stream()
+                .anyMatch(found -> "Replica Only".equals(found.getTitle())));
+    }
+
+    // Zero reported lag with no streaming WAL receiver is a standby that stopped replicating, not a caught-up one.
+    @Test
+    public void testDisconnectedReplicaFallsBackToPrimary() {
+        Book book = bookService.createBook(TestConfig.newBook("9780000018004"));
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("UPDATE replica_wal_receiver SET status = 'stopping'");
+        try {
+            routingDataSource.checkLag();
+            Assertions.assertFalse(routingDataSource.isReplicaFresh());
+            List<Book> books = bookService.getBooks(0L, 100);
+            Assertions.assertTrue(books.stream().anyMatch(found -> book.getIsbn().equals(found.getIsbn())));
+            Assertions.assertTrue(books.stream().noneMatch(found -> "Replica Only".equals(found.getTitle())));
+        } finally {
+            replica.update("UPDATE replica_wal_receiver SET status = 'streaming'");
+        }
+        routingDataSource.checkLag();
+        Assertions.assertTrue(routingDataSource.isReplicaFresh());
+    }
+
+    @Test
+    public void testCachedLookupsReadThePrimaryAfterAnUpdate() {
+        Book book = bookService.createBook(TestConfig.newBook("9780000018003"));
+        User user = userService.createUser(TestConfig.newUser("replica-cache@library.com"));
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        // The replica has the rows but has not replayed the updates below yet.
+        replica.update("INSERT INTO books VALUES (?, 'Routing', 'Author', ?, 'Replication', DATE '2020-01-01')",
+                book.getId(), book.getIsbn());
+        replica.update("INSERT INTO users VALUES (?, 'Reader', ?, '(44) 99999-0000', DATE '2020-01-01')",
+                user.getId(), user.getEmail());
+
+        Book changedBook = TestConfig.newBook(book.getIsbn());
+        changedBook.setTitle("Updated");
+        bookService.updateBook(book.getId(), changedBook);
+        User changedUser = TestConfig.newUser(user.getEmail());
+        changedUser.setName("Updated");
+        userService.updateUser(user.getId(), changedUser);
+
+        Assertions.assertEquals("Updated", bookService.getBookById(book.getId()).orElseThrow().getTitle());
+        Assertions.assertEquals("Updated", cacheManager.getCache(CacheConfig.BOOKS).get(book.getId(), Book.class).getTitle());
+        Assertions.assertEquals("Updated", userService.getUserById(user.getId()).orElseThrow().getName());
+        Assertions.assertEquals("Updated", cacheManager.getCache(CacheConfig.USERS).get(user.getId(), User.class).getName());
+    }
+
+    private int countByIsbn(DataSource dataSource, String isbn) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM books WHERE isbn = ?", Integer.class, isbn);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.library.services;
+
+import com.example.library.TestConfig;
+import com.example.library.config.CacheConfig;
+import com.example.library.domain.Book;
+import com.example.library.domain.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanCounterRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.services.export.StreamExporter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, ServiceCacheTest.TransactionConfig.class, BookService.class, UserService.class},
+        properties = "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=1m,recordStats")
+public class ServiceCacheTest {
+
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionConfig {
+    }
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private LoanCounterRepository loanCounterRepository;
+
+    @MockBean
+    private StreamExporter exporter;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    public void testCacheHitOpensNoTransaction() {
+        Book book = TestConfig.book();
+        book.setId(12L);
+        User user = TestConfig.user();
+        user.setId(12L);
+        when(bookRepository.findById(12L)).thenReturn(Optional.of(book));
+        when(userRepository.findById(12L)).thenReturn(Optional.of(user));
+
+        bookService.getBookById(12L);
+        userService.getUserById(12L);
+        verify(transactionManager, times(2)).getTransaction(any());
+        clearInvocations(transactionManager);
+
+        Assertions.assertEquals(book, bookService.getBookById(12L).orElse(null));
+        Assertions.assertEquals(user, userService.getUserById(12L).orElse(null));
+        verifyNoInteractions(transactionManager);
+        verify(bookRepository, times(1)).findById(12L);
+        verify(userRepository, times(1)).findById(12L);
+    }
+
+    @Test
+    public void testBookLookupIsCachedUntilUpdate() {
+        Book book = TestConfig.book();
+
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        Assertions.assertEquals(book, bookService.getBookById(book.getId()).orElse(null));
+        Assertions.assertEquals(book, bookService.getBookById(book.getId()).orElse(null));
+        verify(bookRepository, times(1)).findById(book.getId());
+
+        bookService.updateBook(book.getId(), book);
+        bookService.getBookById(book.getId());
+        verify(bookRepository, times(3)).findById(book.getId());
+    }
+
+    @Test
+    public void testLookupThatReadBeforeAnUpdateIsNotCached() throws Exception {
+        Book oldBook = TestConfig.book();
+        oldBook.setId(11L);
+        Book newBook = TestConfig.book();
+        newBook.setId(11L);
+        newBook.setTitle("Updated");
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+
+        when(bookRepository.findById(11L)).thenAnswer(invocation -> {
+            reading.countDown();
+            updated.await(10, TimeUnit.SECONDS);
+            return Optional.of(oldBook);
+        }).thenReturn(Optional.of(newBook));
+        when(bookRepository.save(newBook)).thenReturn(newBook);
+
+        CompletableFuture<Optional<Book>> lookup = CompletableFuture.supplyAsync(() -> bookService.getBookById(11L));
+        Assertions.assertTrue(reading.await(10, TimeUnit.SECONDS));
+        bookService.updateBook(11L, newBook);
+        updated.countDown();
+
+        Assertions.assertEquals(oldBook, lookup.get(10, TimeUnit.SECONDS).orElse(null));
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.BOOKS).get(11L));
+        Assertions.assertEquals("Updated", bookService.getBookById(11L).orElseThrow().getTitle());
+        Assertions.assertEquals("Updated", cacheManager.getCache(CacheConfig.BOOKS).get(11L, Book.class).getTitle());
+    }
+
+    @Test
+    public void testLookupsInOneTransactionAreCheckedPerKey() throws Exception {
+        User reader = TestConfig.user();
+        reader.setId(21L);
+        User other = TestConfig.user();
+        other.setId(22L);
+        Book book = TestConfig.book();
+        book.setId(21L);
+        when(userRepository.findById(21L)).thenReturn(Optional.of(reader));
+        when(userRepository.findById(22L)).thenReturn(Optional.of(other));
+        when(bookRepository.findById(21L)).thenReturn(Optional.of(book));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.getUserById(21L);
+            CompletableFuture.runAsync(() -> userService.deleteUser(21L)).get(10, TimeUnit.SECONDS);
+            bookService.getBookById(21L);
+            userService.getUserById(22L);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.USERS).get(21L));
+        Assertions.assertEquals(other, cacheManager.getCache(CacheConfig.USERS).get(22L, User.class));
+        Assertions.assertEquals(book, cacheManager.getCache(CacheConfig.BOOKS).get(21L, Book.class));
+    }
+
+    @Test
+    public void testUserLookupIsCachedUntilDelete() {
+        User user = TestConfig.user();
+        user.setId(7L);
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userService.getUserById(user.getId());
+        userService.getUserById(user.getId());
+        verify(userRepository, times(1)).findById(user.getId());
+
+        userService.deleteUser(user.getId());
+        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(userService.getUserById(user.getId()).isEmpty());
+    }
+
+    @Test
+    public void testMissingUserIsNotCached() {
+        when(userRepository.findById(42L)).thenReturn(Optional.empty());
+
+        userService.getUserById(42L);
+        userService.getUserById(42L);
+
+        verify(userRepository, times(2)).findById(42L);
+    }
+}
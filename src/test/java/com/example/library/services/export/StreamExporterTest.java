@@ -0,0 +1,73 @@
+package com.example.library.services.export;
+
+import com.example.library.TestConfig;
+import com.example.library.config.JacksonConfig;
+import com.example.library.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+public class StreamExporterTest {
+
+    @Spy
+    private ObjectMapper mapper = new JacksonConfig().objectMapper();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private StreamExporter exporter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testWriteNdjson() throws Exception {
+        User user = TestConfig.user();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = exporter.writeNdjson(Stream.of(user, user), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals(user.getEmail(), mapper.readTree(lines[1]).get("email").asText());
+        Assertions.assertEquals("14-09-2024", mapper.readTree(lines[0]).get("createdAt").asText());
+    }
+
+    @Test
+    public void testWriteCsvEscapesFields() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exporter.writeCsv(Stream.of("Paul", "Smith, John", "The \"Book\""), output, List.of("id", "name"),
+                name -> Arrays.asList(1, name));
+
+        Assertions.assertEquals("id,name\r\n1,Paul\r\n1,\"Smith, John\"\r\n1,\"The \"\"Book\"\"\"\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testClearsPersistenceContextWhileStreaming() throws Exception {
+        exporter.writeCsv(IntStream.range(0, StreamExporter.FLUSH_INTERVAL * 2).boxed(), new ByteArrayOutputStream(),
+                List.of("id"), id -> Arrays.asList(id));
+
+        verify(entityManager, times(2)).clear();
+    }
+}
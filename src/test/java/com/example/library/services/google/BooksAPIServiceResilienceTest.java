@@ -0,0 +1,145 @@
+package com.example.library.services.google;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+public class BooksAPIServiceResilienceTest {
+
+    private GoogleBooksStub stub;
+    private BooksAPIService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        stub = new GoogleBooksStub();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+        stub.close();
+    }
+
+    @Test
+    public void testTimesOutSlowResponses() {
+        service = service(Duration.ofMinutes(1), 100, 10, 0);
+        stub.respondByDefault(GoogleBooksStub.Response.ok(Duration.ofSeconds(3)));
+
+        long start = System.nanoTime();
+        Assertions.assertThrows(WebClientRequestException.class, () -> service.getVolumes("dune").block());
+
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    public void testRetriesTransientFailures() {
+        service = service(Duration.ofMinutes(1), 100, 10, 2);
+        stub.respond(GoogleBooksStub.Response.status(503), GoogleBooksStub.Response.status(500));
+
+        Assertions.assertEquals(2, service.getVolumes("dune").block(Duration.ofSeconds(10)).totalItems());
+        Assertions.assertEquals(3, stub.calls());
+    }
+
+    @Test
+    public void testDoesNotRetryClientErrors() {
+        service = service(Duration.ofMinutes(1), 100, 10, 2);
+        stub.respond(GoogleBooksStub.Response.status(400));
+
+        Assertions.assertThrows(WebClientResponseException.BadRequest.class, () -> service.getVolumes("dune").block());
+        Assertions.assertEquals(1, stub.calls());
+    }
+
+    @Test
+    public void testOpensCircuitAfterRepeatedFailures() {
+        service = service(Duration.ofMinutes(1), 100, 4, 0);
+        stub.respondByDefault(GoogleBooksStub.Response.status(500));
+
+        for (int i = 0; i < 4; i++) {
+            String query = "query " + i;
+            Assertions.assertThrows(WebClientResponseException.class, () -> service.getVolumes(query).block());
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, service.getCircuitState());
+
+        Assertions.assertThrows(CallNotPermittedException.class, () -> service.getVolumes("dune").block());
+        Assertions.assertEquals(4, stub.calls());
+    }
+
+    @Test
+    public void testBulkheadRejectsExcessConcurrentCalls() {
+        service = service(Duration.ofMinutes(1), 2, 10, 0);
+        stub.respondByDefault(GoogleBooksStub.Response.ok(Duration.ofMillis(200)));
+
+        List<String> outcomes = Flux.range(0, 5)
+                .flatMap(i -> service.getVolumes("query " + i)
+                        .map(volumes -> "ok")
+                        .onErrorResume(BulkheadFullException.class, error -> Mono.just("rejected")))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(2, outcomes.stream().filter("ok"::equals).count());
+        Assertions.assertEquals(3, outcomes.stream().filter("rejected"::equals).count());
+        Assertions.assertEquals(2, stub.calls());
+    }
+
+    @Test
+    public void testFallsBackToStaleResultWhenUnavailable() throws Exception {
+        service = service(Duration.ofMillis(1), 100, 10, 0);
+
+        Assertions.assertEquals(2, service.getVolumes("dune").block(Duration.ofSeconds(10)).totalItems());
+        Thread.sleep(20);
+        stub.respondByDefault(GoogleBooksStub.Response.status(503));
+
+        Assertions.assertEquals(2, service.getVolumes("Dune").block(Duration.ofSeconds(10)).totalItems());
+        Assertions.assertEquals(2, stub.calls());
+        Assertions.assertThrows(WebClientResponseException.class, () -> service.getVolumes("foundation").block());
+    }
+
+    @Test
+    public void testOversizedResponseFailsAndIsNotRetried() {
+        service = new BooksAPIService(WebClient.builder(), GoogleBooksStub.properties(stub.url(),
+                GoogleBooksStub.cache(Duration.ofMillis(1)), GoogleBooksStub.resilience(100, 10, 2), DataSize.ofBytes(64), 20),
+                new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+        Assertions.assertThrows(DataBufferLimitException.class, () -> service.getVolumes("dune").block(Duration.ofSeconds(10)));
+        Assertions.assertEquals(1, stub.calls());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitState());
+    }
+
+    @Test
+    public void testStopsDecodingAfterMaxResults() {
+        service = new BooksAPIService(WebClient.builder(), GoogleBooksStub.properties(stub.url(),
+                GoogleBooksStub.cache(Duration.ofMinutes(1)), GoogleBooksStub.resilience(100, 10, 0), DataSize.ofMegabytes(1), 1),
+                new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+
+        Volumes volumes = service.getVolumes("dune").block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(2, volumes.totalItems());
+        Assertions.assertEquals(1, volumes.items().size());
+        Assertions.assertEquals("Dune", volumes.items().get(0).volumeInfo().title());
+        Assertions.assertTrue(stub.lastQuery().endsWith("&maxResults=1"));
+    }
+
+    private BooksAPIService service(Duration ttl, int maxConcurrentCalls, int minimumNumberOfCalls, int retries) {
+        return new BooksAPIService(WebClient.builder(), GoogleBooksStub.properties(stub.url(),
+                GoogleBooksStub.cache(ttl), GoogleBooksStub.resilience(maxConcurrentCalls, minimumNumberOfCalls, retries)),
+                new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.library.services.google;
+
+import com.example.library.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+public class BooksAPIServiceTest {
+
+    private GoogleBooksStub stub;
+    private MeterRegistry meterRegistry;
+    private BooksAPIService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        stub = new GoogleBooksStub();
+        stub.respondByDefault(GoogleBooksStub.Response.ok(Duration.ofMillis(200)));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BooksAPIService(WebClient.builder(), GoogleBooksStub.properties(stub.url(),
+                GoogleBooksStub.cache(Duration.ofMinutes(1)), GoogleBooksStub.resilience(100, 10, 0)), meterRegistry,
+                ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.close();
+        stub.close();
+    }
+
+    @Test
+    public void testCoalescesConcurrentIdenticalQueries() {
+        List<Volumes> responses = Flux.range(0, 20)
+                .flatMap(i -> service.getVolumes(i % 2 == 0 ? "Dune" : "  dune "))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(20, responses.size());
+        Assertions.assertEquals(1, stub.calls());
+        Assertions.assertEquals(2, responses.get(0).items().size());
+        Assertions.assertTrue(stub.lastQuery().startsWith("q=dune&fields="));
+    }
+
+    @Test
+    public void testServesRepeatedQueriesFromCacheAndRecordsHitRate() {
+        service.getVolumes("Dune").block(Duration.ofSeconds(10));
+        service.getVolumes("DUNE").block(Duration.ofSeconds(10));
+        service.getVolumes("Foundation").block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(2, stub.calls());
+        Assertions.assertEquals(1, meterRegistry.get("cache.gets")
+                .tag("cache", BooksAPIService.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+        Assertions.assertEquals(2, meterRegistry.get("cache.gets")
+                .tag("cache", BooksAPIService.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testCancelledSubscriberDoesNotCancelSharedCall() {
+        Mono<Volumes> cancelled = service.getVolumes("Dune");
+        cancelled.subscribe().dispose();
+
+        Assertions.assertNotNull(service.getVolumes("dune").block(Duration.ofSeconds(10)));
+        Assertions.assertEquals(1, stub.calls());
+    }
+
+    @Test
+    public void testMapsVolumesToBookCandidates() {
+        List<Book> books = service.getBookCandidates("dune").block(Duration.ofSeconds(10));
+
+        Assertions.assertEquals(2, books.size());
+        Book dune = books.get(0);
+        Assertions.assertEquals("Dune", dune.getTitle());
+        Assertions.assertEquals("Frank Herbert", dune.getAuthor());
+        Assertions.assertEquals("9780441013593", dune.getIsbn());
+        Assertions.assertEquals("Fiction", dune.getCategory());
+        Assertions.assertEquals(LocalDate.of(1965, 8, 1), dune.getPublishDate());
+        Assertions.assertNull(books.get(1).getIsbn());
+        Assertions.assertEquals(LocalDate.of(1969, 1, 1), books.get(1).getPublishDate());
+    }
+}
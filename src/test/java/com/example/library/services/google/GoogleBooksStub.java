@@ -0,0 +1,162 @@
+package com.example.library.services.google;
+
+import com.example.library.config.GoogleBooksProperties;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for the Google Books volumes endpoint, with scripted statuses and delays.
+public class GoogleBooksStub implements AutoCloseable {
+
+    public static final String VOLUMES = """
+            {
+              "kind": "books#volumes",
+              "totalItems": 2,
+              "items": [
+                {
+                  "id": "B1SzEAAAQBAJ",
+                  "volumeInfo": {
+                    "title": "Dune",
+                    "authors": ["Frank Herbert"],
+                    "publishedDate": "1965-08",
+                    "categories": ["Fiction"],
+                    "industryIdentifiers": [
+                      {"type": "ISBN_10", "identifier": "0441013597"},
+                      {"type": "ISBN_13", "identifier": "9780441013593"}
+                    ],
+                    "imageLinks": {"thumbnail": "http://books.google.com/thumbnail"}
+                  },
+                  "saleInfo": {"country": "BR", "saleability": "NOT_FOR_SALE"}
+                },
+                {
+                  "id": "x",
+                  "volumeInfo": {"title": "Dune Messiah", "publishedDate": "1969"}
+                }
+              ]
+            }
+            """;
+
+    public record Response(int status, Duration delay) {
+
+        public static Response ok(Duration delay) {
+            return new Response(200, delay);
+        }
+
+        public static Response status(int status) {
+            return new Response(status, Duration.ZERO);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Queue<Response> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile Response defaultResponse = Response.ok(Duration.ZERO);
+    private volatile String lastQuery;
+    private volatile Headers lastHeaders;
+
+    public GoogleBooksStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        server.createContext("/volumes", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/volumes";
+    }
+
+    public void respond(Response... responses) {
+        script.addAll(List.of(responses));
+    }
+
+    public void respondByDefault(Response response) {
+        defaultResponse = response;
+    }
+
+    public int calls() {
+        return calls.get();
+    }
+
+    public int maxConcurrentCalls() {
+        return maxInFlight.get();
+    }
+
+    public String lastQuery() {
+        return lastQuery;
+    }
+
+    public String lastHeader(String name) {
+        return lastHeaders == null ? null : lastHeaders.getFirst(name);
+    }
+
+    public static GoogleBooksProperties properties(String url, GoogleBooksProperties.Cache cache,
+                                            GoogleBooksProperties.Resilience resilience) {
+        return properties(url, cache, resilience, DataSize.ofMegabytes(1), 20);
+    }
+
+    public static GoogleBooksProperties properties(String url, GoogleBooksProperties.Cache cache,
+                                            GoogleBooksProperties.Resilience resilience, DataSize maxResponseSize,
+                                            int maxResults) {
+        return new GoogleBooksProperties(url, cache,
+                new GoogleBooksProperties.Client(Duration.ofSeconds(1), Duration.ofMillis(500), 10, 100, Duration.ofSeconds(1),
+                        maxResponseSize, maxResults),
+                resilience);
+    }
+
+    public static GoogleBooksProperties.Cache cache(Duration ttl) {
+        return new GoogleBooksProperties.Cache(100, ttl, Duration.ofHours(1));
+    }
+
+    public static GoogleBooksProperties.Resilience resilience(int maxConcurrentCalls, int minimumNumberOfCalls, int retries) {
+        return new GoogleBooksProperties.Resilience(maxConcurrentCalls, 50, 10, minimumNumberOfCalls,
+                Duration.ofMinutes(1), retries, Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        lastQuery = exchange.getRequestURI().getQuery();
+        lastHeaders = exchange.getRequestHeaders();
+        Response response = script.poll();
+        if (response == null) {
+            response = defaultResponse;
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(response.delay().toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        byte[] body = response.status() == 200 ? VOLUMES.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        } catch (IOException exception) {
+            // The client gave up on a delayed response.
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.library.services.google;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class VolumesDecoderTest {
+
+    @Test
+    public void testDecodesItemsSplitAcrossBuffers() {
+        Volumes volumes = new VolumesDecoder(20, 1024 * 1024).decode(chunks(GoogleBooksStub.VOLUMES, 7)).block();
+
+        Assertions.assertEquals(2, volumes.totalItems());
+        Assertions.assertEquals(2, volumes.items().size());
+        Assertions.assertEquals("9780441013593", volumes.items().get(0).volumeInfo().isbn());
+        Assertions.assertEquals("Dune Messiah", volumes.items().get(1).volumeInfo().title());
+    }
+
+    @Test
+    public void testDecodesResponseWithoutItems() {
+        Volumes volumes = new VolumesDecoder(20, 1024).decode(chunks("{\"kind\": \"books#volumes\", \"totalItems\": 0}", 3))
+                .block();
+
+        Assertions.assertEquals(0, volumes.totalItems());
+        Assertions.assertTrue(volumes.items().isEmpty());
+    }
+
+    @Test
+    public void testFailsOnTruncatedResponse() {
+        String truncated = GoogleBooksStub.VOLUMES.substring(0, GoogleBooksStub.VOLUMES.length() / 2);
+
+        Assertions.assertThrows(DecodingException.class,
+                () -> new VolumesDecoder(20, 1024 * 1024).decode(chunks(truncated, 16)).block());
+    }
+
+    private static Flux<DataBuffer> chunks(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + size - 1) / size)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(bytes, i * size, Math.min(bytes.length, (i + 1) * size))));
+    }
+}
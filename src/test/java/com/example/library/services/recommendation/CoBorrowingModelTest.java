@@ -0,0 +1,132 @@
+package com.example.library.services.recommendation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+public class CoBorrowingModelTest {
+
+    @Test
+    public void testRanksByCoBorrowingCount() {
+        CoBorrowingModel model = new CoBorrowingModel(10);
+        model.record(2, new long[]{1});
+        model.record(3, new long[]{1});
+        model.record(3, new long[]{1, 4});
+        model.record(5, new long[]{4});
+
+        Assertions.assertArrayEquals(new long[]{3, 2}, model.recommend(new long[]{1}, 10));
+        Assertions.assertArrayEquals(new long[]{3, 2, 4}, model.recommend(new long[]{1, 5}, 10));
+        Assertions.assertArrayEquals(new long[]{3}, model.recommend(new long[]{1}, 1));
+    }
+
+    @Test
+    public void testKeepsTopNeighboursIncrementally() {
+        CoBorrowingModel model = new CoBorrowingModel(2);
+        model.record(2, new long[]{1});
+        model.record(3, new long[]{1});
+        model.record(4, new long[]{1});
+        model.record(4, new long[]{1});
+
+        Assertions.assertArrayEquals(new long[]{4, 2}, model.neighbours(1));
+
+        model.record(3, new long[]{1});
+        model.record(3, new long[]{1});
+
+        Assertions.assertArrayEquals(new long[]{3, 4}, model.neighbours(1));
+    }
+
+    @Test
+    public void testRemovedBookLeavesEveryNeighbourList() {
+        CoBorrowingModel model = new CoBorrowingModel(2);
+        model.record(2, new long[]{1});
+        model.record(3, new long[]{1, 5});
+        model.record(3, new long[]{1});
+        model.record(4, new long[]{1});
+
+        Assertions.assertArrayEquals(new long[]{3, 2}, model.neighbours(1));
+
+        model.removeBook(3);
+
+        Assertions.assertArrayEquals(new long[0], model.neighbours(3));
+        Assertions.assertArrayEquals(new long[0], model.neighbours(5));
+        Assertions.assertEquals(2, model.recommend(new long[]{1}, 2).length);
+        Assertions.assertArrayEquals(new long[]{2, 4}, Arrays.stream(model.neighbours(1)).sorted().toArray());
+
+        model.record(4, new long[]{1});
+
+        Assertions.assertArrayEquals(new long[]{4, 2}, model.neighbours(1));
+    }
+
+    @Test
+    public void testBoundsTrackedCandidates() {
+        CoBorrowingModel model = new CoBorrowingModel(2);
+        for (long bookId = 2; bookId < 1_000; bookId++) {
+            model.record(bookId, new long[]{1});
+        }
+        for (int i = 0; i < 3; i++) {
+            model.record(5_000, new long[]{1});
+        }
+
+        Assertions.assertEquals(4, model.tracked(1));
+        Assertions.assertEquals(5_000, model.neighbours(1)[0]);
+    }
+
+    @Test
+    public void testMatchesFullScanOfTrackedCounts() {
+        CoBorrowingModel model = new CoBorrowingModel(3);
+        Map<Long, Integer> tracked = new HashMap<>();
+        Comparator<Map.Entry<Long, Integer>> strongestFirst = Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        Random random = new Random(11);
+
+        for (int step = 0; step < 20_000; step++) {
+            long bookId = random.nextInt(40) + 2;
+            if (random.nextInt(50) == 0) {
+                model.removeBook(bookId);
+                tracked.remove(bookId);
+            } else {
+                model.record(bookId, new long[]{1});
+                if (tracked.containsKey(bookId) || tracked.size() < 6) {
+                    tracked.merge(bookId, 1, Integer::sum);
+                } else {
+                    Map.Entry<Long, Integer> weakest = tracked.entrySet().stream().max(strongestFirst).orElseThrow();
+                    tracked.remove(weakest.getKey());
+                    tracked.put(bookId, weakest.getValue() + 1);
+                }
+            }
+            long[] expected = tracked.entrySet().stream().sorted(strongestFirst).limit(3)
+                    .mapToLong(Map.Entry::getKey).toArray();
+            Assertions.assertArrayEquals(expected, model.neighbours(1), "step " + step);
+            Assertions.assertEquals(tracked.size(), model.tracked(1), "step " + step);
+        }
+    }
+
+    @Test
+    public void testHeavyReaderPairsOnlyRecentBooks() {
+        RecommendationIndex index = new RecommendationIndex(50);
+        CoBorrowingModel model = new CoBorrowingModel(50);
+
+        // Unbounded, the last of these loans alone would cost 20,000 increments.
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (long bookId = 1; bookId <= 10_000; bookId++) {
+                long[] history = index.recentBooks(1);
+                if (index.addLoan(1, bookId)) {
+                    model.record(bookId, history);
+                }
+            }
+        });
+
+        Assertions.assertArrayEquals(LongStream.rangeClosed(9_951, 10_000).toArray(), index.recentBooks(1));
+        Assertions.assertEquals(10_000, index.borrowedBooks(1).length);
+        Assertions.assertEquals(50, model.tracked(10_000));
+        Assertions.assertEquals(100, model.tracked(9_950));
+        Assertions.assertEquals(0, model.tracked(0));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.library.services.recommendation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class RecommendationIndexTest {
+
+    private RecommendationIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new RecommendationIndex(50);
+        index.putBook(1, "Romance");
+        index.putBook(2, "Romance");
+        index.putBook(3, "Romance");
+        index.putBook(4, "Poetry");
+        index.putBook(5, "Poetry");
+        index.putBook(6, "History");
+    }
+
+    @Test
+    public void testRanksByCategoryAffinityThenPopularity() {
+        index.addLoan(1, 1);
+        index.addLoan(1, 2);
+        index.addLoan(1, 4);
+        index.addLoan(2, 5);
+        index.addLoan(3, 5);
+
+        Assertions.assertArrayEquals(new long[]{3, 5}, index.recommend(1, 10));
+        Assertions.assertArrayEquals(new long[]{3}, index.recommend(1, 1));
+    }
+
+    @Test
+    public void testExcludesBorrowedBooks() {
+        index.addLoan(1, 4);
+        index.addLoan(1, 5);
+
+        Assertions.assertArrayEquals(new long[0], index.recommend(1, 10));
+        Assertions.assertArrayEquals(new long[0], index.recommend(99, 10));
+    }
+
+    @Test
+    public void testUpdatesIncrementally() {
+        index.addLoan(1, 6);
+        Assertions.assertArrayEquals(new long[0], index.recommend(1, 10));
+
+        index.putBook(7, "History");
+        Assertions.assertArrayEquals(new long[]{7}, index.recommend(1, 10));
+
+        index.putBook(7, "Poetry");
+        index.removeBook(6);
+        Assertions.assertArrayEquals(new long[0], index.recommend(1, 10));
+    }
+
+    @Test
+    public void testFollowsPopularityChanges() {
+        index.addLoan(1, 1);
+        index.addLoan(2, 3);
+
+        Assertions.assertArrayEquals(new long[]{3, 2}, index.recommend(1, 10));
+
+        index.addLoan(3, 2);
+        index.addLoan(4, 2);
+
+        Assertions.assertArrayEquals(new long[]{2, 3}, index.recommend(1, 10));
+        Assertions.assertArrayEquals(new long[]{2}, index.recommend(1, 1));
+    }
+
+    @Test
+    public void testMatchesFullScan() {
+        RecommendationIndex index = new RecommendationIndex(50);
+        Map<Long, String> categories = new HashMap<>();
+        Map<Long, Set<Long>> borrowed = new HashMap<>();
+        Map<Long, Integer> loans = new HashMap<>();
+        Random random = new Random(42);
+        for (long bookId = 1; bookId <= 2_000; bookId++) {
+            categories.put(bookId, "category " + random.nextInt(20));
+            index.putBook(bookId, categories.get(bookId));
+        }
+        for (int i = 0; i < 20_000; i++) {
+            long userId = random.nextInt(300);
+            long bookId = 1 + (long) Math.min(random.nextInt(2_000), random.nextInt(2_000));
+            index.addLoan(userId, bookId);
+            borrowed.computeIfAbsent(userId, key -> new HashSet<>()).add(bookId);
+            loans.merge(bookId, 1, Integer::sum);
+        }
+
+        for (long userId = 0; userId < 300; userId++) {
+            Set<Long> history = borrowed.getOrDefault(userId, Set.of());
+            Map<String, Integer> affinities = new HashMap<>();
+            history.forEach(bookId -> affinities.merge(categories.get(bookId), 1, Integer::sum));
+            long[] expected = categories.keySet().stream()
+                    .filter(bookId -> affinities.containsKey(categories.get(bookId)) && !history.contains(bookId))
+                    .sorted(Comparator.comparing((Long bookId) -> affinities.get(categories.get(bookId)))
+                            .thenComparing(bookId -> loans.getOrDefault(bookId, 0))
+                            .reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .limit(10)
+                    .mapToLong(Long::longValue)
+                    .toArray();
+
+            Assertions.assertArrayEquals(expected, index.recommend(userId, 10), "user " + userId);
+        }
+    }
+}
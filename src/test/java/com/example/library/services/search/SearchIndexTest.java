@@ -0,0 +1,105 @@
+package com.example.library.services.search;
+
+import com.example.library.domain.Book;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new SearchIndex();
+        index.putBook(book(1L, "Dom Casmurro", "Machado de Assis", "978-8535910667", "Romance"));
+        index.putBook(book(2L, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "978-8535911664", "Romance"));
+        index.putBook(book(3L, "Grande Sertão: Veredas", "João Guimarães Rosa", "978-8535908466", "Romance"));
+        index.putBook(book(4L, "Machado: uma biografia", "Lira Neto", "978-8535929089", "Biografia"));
+    }
+
+    @Test
+    public void testRanksTitleMatchesAboveAuthorMatches() {
+        Assertions.assertEquals(List.of(4L, 1L, 2L), ids(index.search("machado", 10)));
+        Assertions.assertEquals(List.of(4L), ids(index.search("machado", 1)));
+    }
+
+    @Test
+    public void testMatchesPrefixesAccentsAndAllTerms() {
+        Assertions.assertEquals(List.of(2L), ids(index.search("memorias bras", 10)));
+        Assertions.assertEquals(List.of(3L), ids(index.search("sert guim", 10)));
+        Assertions.assertEquals(List.of(1L), ids(index.search("9788535910667", 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("machado rosa", 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("m", 10)));
+    }
+
+    @Test
+    public void testUpdatesAndRemovals() {
+        index.putBook(book(1L, "Quincas Borba", "Machado de Assis", "978-8535910667", "Romance"));
+        index.removeBook(2L);
+
+        Assertions.assertEquals(List.of(), ids(index.search("casmurro", 10)));
+        Assertions.assertEquals(List.of(1L), ids(index.search("quincas", 10)));
+        Assertions.assertEquals(List.of(1L), ids(index.search("assis", 10)));
+        Assertions.assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testShortTokensOnlyMatchExactly() {
+        index.putBook(book(5L, "O Ateneu", "Raul Pompeia", "978-8508133611", "Romance"));
+
+        Assertions.assertEquals(List.of(5L), ids(index.search("o", 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("ro", 10)));
+        Assertions.assertEquals(List.of(3L), ids(index.search("ros", 10)));
+    }
+
+    @Test
+    public void testCapsPostingsScannedByPrefix() {
+        SearchIndex capped = new SearchIndex(2);
+        capped.putBook(book(1L, "Alpha", "Author", "1", "Category"));
+        capped.putBook(book(2L, "Alphabet", "Author", "2", "Category"));
+        capped.putBook(book(3L, "Alphanumeric", "Author", "3", "Category"));
+        capped.putBook(book(4L, "Alphorn", "Author", "4", "Category"));
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L), ids(capped.search("alpha", 10)));
+        Assertions.assertEquals(List.of(1L, 2L), ids(capped.search("alp", 10)));
+    }
+
+    @Test
+    public void testChangesDuringRebuildAreKept() {
+        Stream<Book> catalog = Stream.of(
+                book(1L, "Dom Casmurro", "Machado de Assis", "978-8535910667", "Romance"),
+                book(2L, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "978-8535911664", "Romance"),
+                book(3L, "Grande Sertão: Veredas", "João Guimarães Rosa", "978-8535908466", "Romance"));
+        index.rebuild(catalog.peek(book -> {
+            if (book.getId() == 1L) {
+                index.removeBook(2L);
+                index.putBook(book(5L, "Quincas Borba", "Machado de Assis", "978-8535910668", "Romance"));
+            }
+        }));
+
+        Assertions.assertEquals(List.of(), ids(index.search("bras", 10)));
+        Assertions.assertEquals(List.of(5L), ids(index.search("quincas", 10)));
+        Assertions.assertEquals(List.of(), ids(index.search("biografia", 10)));
+        Assertions.assertEquals(3, index.size());
+    }
+
+    private List<Long> ids(List<IndexedBook> books) {
+        return books.stream().map(IndexedBook::id).toList();
+    }
+
+    private Book book(Long id, String title, String author, String isbn, String category) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn(isbn);
+        book.setCategory(category);
+        book.setPublishDate(LocalDate.of(2000, 1, 1));
+        return book;
+    }
+}
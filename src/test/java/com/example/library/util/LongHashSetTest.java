@@ -0,0 +1,33 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testMatchesHashSet() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(expected.add(key), set.add(key));
+            } else {
+                Assertions.assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), set.size());
+        expected.forEach(key -> Assertions.assertTrue(set.contains(key)));
+        for (long key : set.toArray()) {
+            Assertions.assertTrue(expected.contains(key));
+        }
+    }
+}
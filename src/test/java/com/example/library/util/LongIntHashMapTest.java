@@ -0,0 +1,60 @@
+package com.example.library.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testCountsAccumulate() {
+        LongIntHashMap counts = new LongIntHashMap();
+
+        for (long key = 0; key < 1_000; key++) {
+            counts.addTo(key, 1);
+            counts.addTo(key, (int) key);
+        }
+
+        Assertions.assertEquals(1_000, counts.size());
+        Assertions.assertEquals(1, counts.get(0));
+        Assertions.assertEquals(1_000, counts.get(999));
+        Assertions.assertEquals(0, counts.get(5_000));
+    }
+
+    @Test
+    public void testPutReplacesValue() {
+        LongIntHashMap values = new LongIntHashMap();
+
+        Assertions.assertEquals(0, values.put(0, 3));
+        Assertions.assertEquals(0, values.put(7, 5));
+        Assertions.assertEquals(5, values.put(7, 2));
+        Assertions.assertEquals(3, values.put(0, 1));
+
+        Assertions.assertEquals(2, values.size());
+        Assertions.assertEquals(1, values.get(0));
+        Assertions.assertEquals(2, values.get(7));
+    }
+
+    @Test
+    public void testCountsMatchHashMap() {
+        LongIntHashMap counts = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) > 0) {
+                Assertions.assertEquals(expected.merge(key, 1, Integer::sum), counts.addTo(key, 1));
+            } else {
+                Integer removed = expected.remove(key);
+                Assertions.assertEquals(removed == null ? 0 : removed, counts.remove(key));
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), counts.size());
+        expected.forEach((key, value) -> Assertions.assertEquals(value, counts.get(key)));
+    }
+}
@@ -0,0 +1,5 @@
+-- H2 has no partial indexes: a generated column gives the same guarantee as loans_active_book_idx.
+ALTER TABLE loans ADD COLUMN active_book_id BIGINT GENERATED ALWAYS AS (CASE WHEN status = 1 THEN book_id END);
+CREATE UNIQUE INDEX loans_active_book_idx ON loans (active_book_id);
+-- H2 has no advisory locks: a no-op keeps the ISBN check runnable; PostgreSQL does the locking.
+CREATE ALIAS pg_advisory_xact_lock AS $$ void lock(int namespace, int key) { } $$;
@@ -0,0 +1,11 @@
+-- Runs on every replica connection (H2 INIT): a lagging copy of the primary schema with its own rows.
+CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, phone VARCHAR(255) NOT NULL, created_at DATE NOT NULL);
+CREATE TABLE IF NOT EXISTS books (id BIGINT PRIMARY KEY, title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, isbn VARCHAR(255) NOT NULL, category VARCHAR(255) NOT NULL, publish_date DATE NOT NULL);
+CREATE TABLE IF NOT EXISTS loans (id BIGINT PRIMARY KEY, status SMALLINT, loan_date DATE NOT NULL, return_date DATE, user_id BIGINT, book_id BIGINT);
+CREATE TABLE IF NOT EXISTS loans_archive (id BIGINT PRIMARY KEY, status SMALLINT NOT NULL, loan_date DATE NOT NULL, return_date DATE, user_id BIGINT, book_id BIGINT, archived_at TIMESTAMP NOT NULL);
+CREATE TABLE IF NOT EXISTS loan_counters (scope SMALLINT NOT NULL, owner_id BIGINT NOT NULL, status SMALLINT NOT NULL, total BIGINT NOT NULL, PRIMARY KEY (scope, owner_id, status));
+CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION NOT NULL);
+CREATE TABLE IF NOT EXISTS replica_wal_receiver (status VARCHAR(32) NOT NULL);
+MERGE INTO books KEY (id) VALUES (1000000, 'Replica Only', 'Replica', '9780000000000', 'Replica', DATE '2020-01-01');
+INSERT INTO replica_lag SELECT 0 WHERE NOT EXISTS (SELECT 1 FROM replica_lag);
+INSERT INTO replica_wal_receiver SELECT 'streaming' WHERE NOT EXISTS (SELECT 1 FROM replica_wal_receiver);